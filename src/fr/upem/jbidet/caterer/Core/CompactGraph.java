@@ -0,0 +1,330 @@
+package fr.upem.jbidet.caterer.Core;
+
+import java.nio.IntBuffer;
+
+/**
+ * Représente un graphe sous forme compacte (CSR) : des tableaux d'entiers au lieu d'objets {@link Vertex} et {@link Arc}.<br>
+ * Les arcs sont rangés par sommet A : les arcs sortant du sommet <b>v</b> occupent les index
+ *  <b>getArcStart(v)</b> inclus à <b>getArcEnd(v)</b> exclu.<br>
+ * L'index d'un arc dans ce graphe n'est donc pas son index dans le fichier, retourné par {@link #getArcId(int)}.<br>
+ * La topologie (sommets, arcs, coûts) ne change pas ; seul le flot des arcs peut être modifié.
+ *  Plusieurs graphes compacts peuvent partager la même topologie avec des flots différents.<br>
+ * Les tableaux sont rangés dans le tas ou hors du tas suivant le {@link GraphStorage} choisi à la création ;
+ *  les accesseurs sont les mêmes dans tous les cas.<br>
+ * @author Jeremy
+ * @version 1.0
+ * @see Graph
+ * @see FlowNetwork
+ */
+public class CompactGraph implements FlowNetwork {
+
+	private final String name;
+	private final GraphStorage storage;
+	private final int vertexQuantity;
+	private final int arcQuantity;
+	private final IntBuffer weights;
+	private final IntBuffer offsets;
+	private final IntBuffer tails;
+	private final IntBuffer heads;
+	private final IntBuffer costs;
+	private final IntBuffer ids;
+	private final IntBuffer flows;
+
+	/**
+	 * Crée un graphe compact à partir du vecteur des poids des sommets et des triplets (sommet A, sommet B, coût) des arcs.<br>
+	 * Les tableaux ne sont pas modifiés ; les arcs sont recopiés et triés par sommet A en temps linéaire.<br>
+	 * @param name le nom du graphe
+	 * @param weights le vecteur des poids des sommets
+	 * @param tails le sommet A de chaque arc
+	 * @param heads le sommet B de chaque arc
+	 * @param costs le coût de chaque arc
+	 * @param arcQuantity le nombre d'arcs, lus au début des tableaux
+	 */
+	public CompactGraph(String name, int[] weights, int[] tails, int[] heads, int[] costs, int arcQuantity) {
+		this(name, weights, IntBuffer.wrap(tails), IntBuffer.wrap(heads), IntBuffer.wrap(costs), arcQuantity, GraphStorage.HEAP);
+	}
+
+	/**
+	 * Crée un graphe compact dont les tableaux sont alloués par <b>storage</b>, à partir des triplets des arcs.<br>
+	 * Les tableaux ne sont pas modifiés ; les arcs sont recopiés et triés par sommet A en temps linéaire.<br>
+	 * @param name le nom du graphe
+	 * @param weights le vecteur des poids des sommets
+	 * @param tails le sommet A de chaque arc
+	 * @param heads le sommet B de chaque arc
+	 * @param costs le coût de chaque arc
+	 * @param arcQuantity le nombre d'arcs, lus au début des tableaux
+	 * @param storage l'emplacement des tableaux du graphe
+	 */
+	public CompactGraph(String name, int[] weights, IntBuffer tails, IntBuffer heads, IntBuffer costs, int arcQuantity, GraphStorage storage) {
+		this.name = name;
+		this.storage = storage;
+		this.vertexQuantity = weights.length;
+		this.arcQuantity = arcQuantity;
+		this.weights = storage.copyOf(weights);
+		this.offsets = storage.allocate(vertexQuantity + 1);
+		this.tails = storage.allocate(arcQuantity);
+		this.heads = storage.allocate(arcQuantity);
+		this.costs = storage.allocate(arcQuantity);
+		this.ids = storage.allocate(arcQuantity);
+		this.flows = storage.allocate(arcQuantity);
+		/* tri par dénombrement : compte les arcs de chaque sommet A, puis range chaque arc à la suite de ceux de son sommet */
+		int[] next = new int[vertexQuantity + 1];
+		for(int i=0; i<arcQuantity; i++) {
+			next[tails.get(i) + 1]++;
+		}
+		for(int v=0; v<vertexQuantity; v++) {
+			next[v + 1] += next[v];
+		}
+		offsets.put(next).clear();
+		for(int i=0; i<arcQuantity; i++) {
+			int tail = tails.get(i);
+			int a = next[tail]++;
+			this.tails.put(a, tail);
+			this.heads.put(a, heads.get(i));
+			this.costs.put(a, costs.get(i));
+			this.ids.put(a, i);
+		}
+	}
+
+	/**
+	 * Crée le graphe compact correspondant à un graphe.<br>
+	 * Les sommets sont indexés par leur identifiant, les arcs gardent leur index dans la liste des arcs du graphe,
+	 *  ainsi que leur flot.<br>
+	 * @param graph le graphe
+	 */
+	public CompactGraph(Graph graph) {
+		this(graph.getName(), weights(graph), vertexIds(graph, true), vertexIds(graph, false), arcCosts(graph), graph.getArcsQuantity());
+		for(int a=0; a<arcQuantity; a++) {
+			flows.put(a, graph.getArc(ids.get(a)).getFlow());
+		}
+	}
+
+	/* partage la topologie d'un autre graphe compact, avec ses propres flots */
+	private CompactGraph(CompactGraph graph, IntBuffer flows) {
+		this.name = graph.name;
+		this.storage = graph.storage;
+		this.vertexQuantity = graph.vertexQuantity;
+		this.arcQuantity = graph.arcQuantity;
+		this.weights = graph.weights;
+		this.offsets = graph.offsets;
+		this.tails = graph.tails;
+		this.heads = graph.heads;
+		this.costs = graph.costs;
+		this.ids = graph.ids;
+		this.flows = flows;
+	}
+
+	private static int[] weights(Graph graph) {
+		int[] weights = new int[graph.getVertex().size()];
+		for(Vertex v : graph.getVertex()) {
+			weights[v.getId()] = v.getVertexWeight();
+		}
+		return weights;
+	}
+
+	private static int[] vertexIds(Graph graph, boolean tail) {
+		int[] ids = new int[graph.getArcsQuantity()];
+		for(int i=0; i<ids.length; i++) {
+			Arc a = graph.getArc(i);
+			ids[i] = (tail ? a.getVertexA() : a.getVertexB()).getId();
+		}
+		return ids;
+	}
+
+	private static int[] arcCosts(Graph graph) {
+		int[] costs = new int[graph.getArcsQuantity()];
+		for(int i=0; i<costs.length; i++) {
+			costs[i] = graph.getArc(i).getCost();
+		}
+		return costs;
+	}
+
+	/**
+	 * Retourne un graphe compact partageant la topologie de ce graphe, avec d'autres flots.<br>
+	 * @param flows le flot de chaque arc, indexé comme les arcs de ce graphe ; le tableau n'est pas recopié
+	 * @return <b>graph</b> le graphe compact portant ces flots
+	 */
+	public CompactGraph withFlows(int[] flows) {
+		if(flows.length != arcQuantity) {
+			throw new IllegalArgumentException("flows must have one value per arc : " + flows.length + " != " + arcQuantity);
+		}
+		return new CompactGraph(this, IntBuffer.wrap(flows));
+	}
+
+	/**
+	 * Retourne l'emplacement des tableaux du graphe.<br>
+	 * @return <b>storage</b> l'emplacement des tableaux
+	 */
+	public GraphStorage getStorage() {
+		return storage;
+	}
+
+	/**
+	 * Retourne le nom du graphe.<br>
+	 * @return <b>name</b> le nom du graphe
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Retourne le nombre de sommets dans le graphe.<br>
+	 * @return <b>size</b> le nombre de sommets
+	 */
+	@Override
+	public int getVertexQuantity() {
+		return vertexQuantity;
+	}
+
+	/**
+	 * Retourne le nombre d'arcs dans le graphe.<br>
+	 * @return <b>size</b> le nombre d'arcs
+	 */
+	@Override
+	public int getArcQuantity() {
+		return arcQuantity;
+	}
+
+	/**
+	 * Retourne le poids d'un sommet.<br>
+	 * @param v l'index du sommet
+	 * @return <b>weight</b> le poids du sommet
+	 */
+	@Override
+	public int getWeight(int v) {
+		return weights.get(v);
+	}
+
+	/**
+	 * Retourne l'index du premier arc sortant d'un sommet.<br>
+	 * @param v l'index du sommet
+	 * @return <b>start</b> l'index du premier arc sortant de <b>v</b>
+	 */
+	public int getArcStart(int v) {
+		return offsets.get(v);
+	}
+
+	/**
+	 * Retourne l'index suivant le dernier arc sortant d'un sommet.<br>
+	 * @param v l'index du sommet
+	 * @return <b>end</b> l'index suivant le dernier arc sortant de <b>v</b>
+	 */
+	public int getArcEnd(int v) {
+		return offsets.get(v + 1);
+	}
+
+	/**
+	 * Retourne le sommet A d'un arc.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>tail</b> l'index du sommet A
+	 */
+	@Override
+	public int getTail(int a) {
+		return tails.get(a);
+	}
+
+	/**
+	 * Retourne le sommet B d'un arc.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>head</b> l'index du sommet B
+	 */
+	@Override
+	public int getHead(int a) {
+		return heads.get(a);
+	}
+
+	/**
+	 * Retourne le coût d'un arc.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>cost</b> le coût de l'arc
+	 */
+	@Override
+	public int getCost(int a) {
+		return costs.get(a);
+	}
+
+	/**
+	 * Retourne l'index d'un arc dans l'ordre d'origine (fichier ou liste des arcs du {@link Graph}).<br>
+	 * @param a l'index de l'arc dans ce graphe
+	 * @return <b>id</b> l'index d'origine de l'arc
+	 */
+	public int getArcId(int a) {
+		return ids.get(a);
+	}
+
+	/**
+	 * Retourne le flot d'un arc.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>flow</b> la quantité transportée
+	 */
+	public int getFlow(int a) {
+		return flows.get(a);
+	}
+
+	/**
+	 * Définie le flot d'un arc.<br>
+	 * @param a l'index de l'arc
+	 * @param flow le flot
+	 */
+	public void setFlow(int a, int flow) {
+		flows.put(a, flow);
+	}
+
+	/**
+	 * Retourne le coût total des flots : la somme des flots multipliés par le coût de leur arc.<br>
+	 * @return <b>cost</b> le coût total
+	 */
+	public long getTotalCost() {
+		long total = 0;
+		for(int a=0; a<arcQuantity; a++) {
+			total += (long)flows.get(a) * costs.get(a);
+		}
+		return total;
+	}
+
+	/**
+	 * Instancie le {@link Graph} correspondant, avec le flot de chaque arc.<br>
+	 * Les arcs sont remis dans leur ordre d'origine, dans le graphe comme dans la liste de chaque sommet.<br>
+	 * @return <b>graph</b> le graphe
+	 */
+	public Graph toGraph() {
+		int[] order = new int[arcQuantity];
+		for(int a=0; a<arcQuantity; a++) {
+			order[ids.get(a)] = a;
+		}
+		int[] vertexWeights = new int[vertexQuantity];
+		weights.duplicate().get(vertexWeights);
+		GraphBuilder builder = new GraphBuilder(vertexWeights, arcQuantity);
+		for(int i=0; i<arcQuantity; i++) {
+			builder.addArc(tails.get(order[i]), heads.get(order[i]), costs.get(order[i]));
+		}
+		Graph graph = builder.build(name);
+		for(int i=0; i<arcQuantity; i++) {
+			graph.getArc(i).setFlow(flows.get(order[i]));
+		}
+		return graph;
+	}
+
+	/**
+	 * Affiche le graphe compact : ses dimensions et les arcs portant un flot.<br>
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("CompactGraph : {\n")
+			.append("\tname : ").append(name).append("\n")
+			.append("\tvertex quantity : ").append(vertexQuantity).append("\n")
+			.append("\tarc quantity : ").append(arcQuantity).append("\n")
+			.append("\tflows : {\n");
+		for(int a=0; a<arcQuantity; a++) {
+			if(flows.get(a) != 0) {
+				sb.append("\t\t").append(tails.get(a)).append(" -> ").append(heads.get(a))
+					.append(" : ").append(flows.get(a)).append(" x ").append(costs.get(a)).append("\n");
+			}
+		}
+		return sb.append("\t}\n")
+			.append("\ttotal cost : ").append(getTotalCost()).append("\n")
+			.append("}\n").toString();
+	}
+
+}
@@ -1,8 +1,8 @@
 package fr.upem.jbidet.caterer.Core;
 
 /**
- * Reprsente un arc artificiel cre pour la solution initiale.<br>
- * Cette classe hrite de tous les attributs et mthodes de la classe {@link Arc}.<br>
+ * Représente un arc artificiel crée pour la solution initiale.<br>
+ * Cette classe hérite de tous les attributs et méthodes de la classe {@link Arc}.<br>
  * @author Jeremy
  * @author Melody
  * @version 1.0
@@ -21,14 +21,6 @@ public class FakeArc extends Arc {
 		super(cost);
 	}
 	
-	/**
-	 * Vrifie que l'objet pass est bien une instance de {@link FakeArc} et que ses champs sont bien gaux  cette instance.
-	 */
-	@Override
-	public boolean equals(Object o) {
-		return o instanceof FakeArc && super.equals(o);
-	}
-	
 	/**
 	 * Affiche correctement l'instance de la classe {@link FakeArc}
 	 */
@@ -38,7 +30,9 @@ public class FakeArc extends Arc {
 	}
 	
 	public Arc clone() {
-		return new FakeArc(super.getVertexA(), super.getVertexB(), super.getCost());
+		Arc arc = new FakeArc(super.getVertexA(), super.getVertexB(), super.getCost());
+		arc.setId(getId());
+		return arc;
 	}
 
 }
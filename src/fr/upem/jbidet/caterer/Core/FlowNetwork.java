@@ -0,0 +1,54 @@
+package fr.upem.jbidet.caterer.Core;
+
+/**
+ * Représente la topologie d'un réseau de transport, lue par le simplex au travers d'index :
+ *  les sommets sont numérotés de <b>0</b> à <b>getVertexQuantity() - 1</b>
+ *  et les arcs de <b>0</b> à <b>getArcQuantity() - 1</b>.<br>
+ * Un réseau n'est jamais modifié par le simplex, qui range les flots et son propre état dans des tableaux à part.<br>
+ * @author Jeremy
+ * @version 1.0
+ * @see CompactGraph
+ */
+public interface FlowNetwork {
+
+	/**
+	 * Retourne le nombre de sommets du réseau.<br>
+	 * @return <b>size</b> le nombre de sommets
+	 */
+	public int getVertexQuantity();
+
+	/**
+	 * Retourne le nombre d'arcs du réseau.<br>
+	 * @return <b>size</b> le nombre d'arcs
+	 */
+	public int getArcQuantity();
+
+	/**
+	 * Retourne le poids d'un sommet : négatif pour une source, positif pour un puits.<br>
+	 * @param v l'index du sommet
+	 * @return <b>weight</b> le poids du sommet
+	 */
+	public int getWeight(int v);
+
+	/**
+	 * Retourne le sommet A d'un arc.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>tail</b> l'index du sommet A
+	 */
+	public int getTail(int a);
+
+	/**
+	 * Retourne le sommet B d'un arc.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>head</b> l'index du sommet B
+	 */
+	public int getHead(int a);
+
+	/**
+	 * Retourne le coût d'un arc.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>cost</b> le coût de l'arc
+	 */
+	public int getCost(int a);
+
+}
@@ -2,25 +2,30 @@ package fr.upem.jbidet.caterer.Core;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Reprsente un graphe possdant des sommets ({@link Vertex}) et des arcs ({@link Arc}).<br>
- * Un graphe possde en plus un id et un nom pour l'identifier.<br>
+ * Représente un graphe possédant des sommets ({@link Vertex}) et des arcs ({@link Arc}).<br>
+ * Un graphe possède en plus un id et un nom pour l'identifier.<br>
+ * Le graphe attribue leur identifiant aux sommets et aux arcs qu'il reçoit : leur index dans ses listes.
+ *  Les identifiants sont propres à chaque graphe, plusieurs graphes peuvent donc être construits en même temps.<br>
  * @author Jeremy
  * @author Melody
  * @version 1.0
  */
 public class Graph {
 
-	private static int instance = 0;
+	private static final AtomicInteger instance = new AtomicInteger();
 	private final int id;
+	private int vertexIds;
+	private int arcIds;
 	private int vertexQuantity;
 	private String name;
 	private List<Vertex> vertex;
 	private List<Arc> arcs;
 	
 	/**
-	 * Cre un graphe temporaire vide.<br>
+	 * Crée un graphe temporaire vide.<br>
 	 */
 	public Graph() {
 		this.id = -1;
@@ -28,37 +33,33 @@ public class Graph {
 		this.vertexQuantity = -1;
 		this.vertex = new ArrayList<Vertex>();
 		this.arcs = new ArrayList<Arc>();
-		Vertex.resetInstance();
-		Arc.resetInstance();
 	}
 	
 	/**
-	 * Cre un graphe avec un nom, une liste de sommets et une liste d'arcs.<br>
-	 * Les sommets sont relis entre eux par ses arcs.<br>
+	 * Crée un graphe avec un nom, une liste de sommets et une liste d'arcs.<br>
+	 * Les sommets sont reliés entre eux par ses arcs.<br>
 	 * @param name nom du graphe
 	 * @param vertex liste des sommets du graphe
 	 * @param arcs liste des arcs du graphe
 	 */
 	public Graph(String name, int vertexQuantity, List<Vertex> vertex, List<Arc> arcs) {
-		this.id = instance++;
+		this.id = instance.getAndIncrement();
 		this.name = name;
 		this.vertexQuantity = vertexQuantity;
-		this.vertex = vertex;
-		this.arcs = arcs;
+		setVertex(vertex);
+		setArcs(arcs);
 	}
 	
 	/**
-	 * Cre un graphe avec un nom.<br>
+	 * Crée un graphe avec un nom.<br>
 	 * @param name le nom du graphe
 	 */
 	public Graph(String name) {
-		this.id = instance++;
+		this.id = instance.getAndIncrement();
 		this.name = name;
 		this.vertexQuantity = -1;
 		this.vertex = new ArrayList<Vertex>();
 		this.arcs = new ArrayList<Arc>();
-		Vertex.resetInstance();
-		Arc.resetInstance();
 	}
 	
 	/**
@@ -87,8 +88,8 @@ public class Graph {
 	
 	/**
 	 * Retourne un sommet du graphe suivant un index.<br>
-	 * @param index l'index du sommet  retourner
-	 * @return <b>vertex</b> le sommet  l'index <b>index</b>
+	 * @param index l'index du sommet à retourner
+	 * @return <b>vertex</b> le sommet à l'index <b>index</b>
 	 */
 	public Vertex getVertex(int index) {
 		return vertex.get(index);
@@ -112,8 +113,8 @@ public class Graph {
 	
 	/**
 	 * Retourne un arc du graphe suivant un index.<br>
-	 * @param index l'index de l'arc  retourner
-	 * @return <b>arc</b> l'arc  l'index <b>index</b>
+	 * @param index l'index de l'arc à retourner
+	 * @return <b>arc</b> l'arc à l'index <b>index</b>
 	 */
 	public Arc getArc(int index) {
 		return arcs.get(index);
@@ -128,7 +129,7 @@ public class Graph {
 	}
 	
 	/**
-	 * Dfinie le nom du graphe.<br>
+	 * Définie le nom du graphe.<br>
 	 * @param name le nom
 	 */
 	public void setName(String name) {
@@ -136,7 +137,7 @@ public class Graph {
 	}
 	
 	/**
-	 * Dfinie le nombre de sommets dans le graphe.<br>
+	 * Définie le nombre de sommets dans le graphe.<br>
 	 * @param vertexQuantity le nombre de sommets
 	 */
 	public void setVertexQuantity(int vertexQuantity) {
@@ -144,61 +145,71 @@ public class Graph {
 	}
 	
 	/**
-	 * Dfinie la liste des sommets du graphe.<br>
+	 * Définie la liste des sommets du graphe ; chaque sommet reçoit son index comme identifiant.<br>
 	 * @param vertex la liste des sommets
 	 */
 	public void setVertex(List<Vertex> vertex) {
 		this.vertex = vertex;
+		for(int i=0; i<vertex.size(); i++) {
+			vertex.get(i).setId(i);
+		}
+		this.vertexIds = vertex.size();
 	}
 	
 	/**
-	 * Dfinie la liste des arcs du graphe.<br>
+	 * Définie la liste des arcs du graphe ; chaque arc reçoit son index comme identifiant.<br>
 	 * @param arc la liste des arcs
 	 */
 	public void setArcs(List<Arc> arc) {
 		this.arcs = arc;
+		for(int i=0; i<arc.size(); i++) {
+			arc.get(i).setId(i);
+		}
+		this.arcIds = arc.size();
 	}
 	
 	/**
 	 * Ajoute un sommet au graphe.<br>
-	 * @param v le sommet  ajouter
-	 * @return <b>true</b> si l'ajout s'est bien pass, sinon <b>false</b>
+	 * @param v le sommet à ajouter
+	 * @return <b>true</b> si l'ajout s'est bien passé, sinon <b>false</b>
 	 */
 	public boolean addVertex(Vertex vertex) {
+		vertex.setId(vertexIds++);
 		return this.vertex.add(vertex);
 	}
 	
 	/**
 	 * Ajoute des sommets au graphe.<br>
-	 * @param vs les sommets  ajouter
-	 * @return <b>true</b> si l'ajout s'est bien pass, sinon <b>false</b>
+	 * @param vs les sommets à ajouter
+	 * @return <b>true</b> si l'ajout s'est bien passé, sinon <b>false</b>
 	 */
 	public boolean addVertex(Vertex... vertex) {
 		boolean b = true;
 		for(Vertex v : vertex) {
-			b &= this.vertex.add(v);
+			b &= addVertex(v);
 		}
 		return b;
 	}
 	
 	/**
 	 * Ajoute un arc au graphe.<br>
-	 * @param a l'arc  ajouter
-	 * @return <b>true</b> si l'ajout s'est bien pass, sinon <b>false</b>
+	 * @param a l'arc à ajouter
+	 * @return <b>true</b> si l'ajout s'est bien passé, sinon <b>false</b>
 	 */
 	public boolean addArc(Arc arc) {
+		arc.setId(arcIds++);
 		return arcs.add(arc);
 	}
 	
 	/**
 	 * Ajoute des arcs au graphe.<br>
-	 * @param as les arcs  ajouter
-	 * @return <b>true</b> si l'ajout s'est bien pass, sinon <b>false</b>
+	 * @param as les arcs à ajouter
+	 * @return <b>true</b> si l'ajout s'est bien passé, sinon <b>false</b>
 	 */
 	public boolean addArcs(Arc... arcs) {
 		boolean b = true;
 		for(Arc a : arcs) {
-			b &= this.arcs.add(a);
+			b &= addArc(a);
 		}
 		return b;
 	}
@@ -212,6 +223,15 @@ public class Graph {
 				&& ((Graph)o).arcs.equals(this.arcs);
 	}
 	
+	/**
+	 * Simple hash code pour un graphe : renvoie l'<b>id</b>.<br>
+	 * @return <b>id</b> l'identifiant du graphe
+	 */
+	@Override
+	public int hashCode() {
+		return id;
+	}
+	
 	@Override
 	public String toString() {
 		return "Graph : {\n"
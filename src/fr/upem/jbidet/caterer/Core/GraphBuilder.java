@@ -0,0 +1,204 @@
+package fr.upem.jbidet.caterer.Core;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Construit un {@link Graph} en mémoire à partir du vecteur des poids des sommets et des triplets (sommet A, sommet B, coût) des arcs,
+ *  sans passer par le format texte des fichiers.<br>
+ * Les arcs sont ajoutés un par un ou en bloc, dans des tableaux d'entiers pré-alloués à la capacité annoncée ;
+ *  les {@link Vertex} et {@link Arc} ne sont instanciés qu'à l'appel de {@link #build(String)}, en temps linéaire.<br>
+ * Les index des sommets sont vérifiés à l'ajout de chaque arc, et les boucles rejetées comme par les parseurs ;
+ *  l'égalité de l'offre et de la demande n'est pas vérifiée, un graphe déséquilibré n'ayant simplement pas de solution.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public class GraphBuilder {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int[] weights;
+	private int[] tails;
+	private int[] heads;
+	private int[] costs;
+	private int arcQuantity;
+
+	/**
+	 * Crée un constructeur de graphe à <b>vertexQuantity</b> sommets de poids nul.<br>
+	 * @param vertexQuantity le nombre de sommets
+	 * @param arcCapacity le nombre d'arcs attendus, ajoutés sans réallocation
+	 */
+	public GraphBuilder(int vertexQuantity, int arcCapacity) {
+		this(new int[vertexQuantity], arcCapacity);
+	}
+
+	/**
+	 * Crée un constructeur de graphe dont les sommets ont les poids <b>weights</b>.<br>
+	 * @param weights le vecteur des poids des sommets, recopié
+	 * @param arcCapacity le nombre d'arcs attendus, ajoutés sans réallocation
+	 */
+	public GraphBuilder(int[] weights, int arcCapacity) {
+		if(arcCapacity < 0) {
+			throw new IllegalArgumentException("arc capacity must not be negative : " + arcCapacity);
+		}
+		this.weights = weights.clone();
+		this.tails = new int[arcCapacity];
+		this.heads = new int[arcCapacity];
+		this.costs = new int[arcCapacity];
+	}
+
+	/**
+	 * Retourne le nombre de sommets du graphe.<br>
+	 * @return <b>size</b> le nombre de sommets
+	 */
+	public int getVertexQuantity() {
+		return weights.length;
+	}
+
+	/**
+	 * Retourne le nombre d'arcs ajoutés.<br>
+	 * @return <b>size</b> le nombre d'arcs
+	 */
+	public int getArcQuantity() {
+		return arcQuantity;
+	}
+
+	/**
+	 * Définie le poids d'un sommet : négatif pour une source, positif pour un puits.<br>
+	 * @param v l'index du sommet
+	 * @param weight le poids du sommet
+	 * @return <b>this</b> ce constructeur
+	 */
+	public GraphBuilder setWeight(int v, int weight) {
+		checkVertex(v);
+		weights[v] = weight;
+		return this;
+	}
+
+	/**
+	 * Ajoute un arc allant du sommet <b>tail</b> au sommet <b>head</b>.<br>
+	 * @param tail l'index du sommet A
+	 * @param head l'index du sommet B
+	 * @param cost le coût de l'arc
+	 * @return <b>this</b> ce constructeur
+	 * @throws IllegalArgumentException l'arc est une boucle (<b>tail</b> égal à <b>head</b>)
+	 */
+	public GraphBuilder addArc(int tail, int head, int cost) {
+		checkVertex(tail);
+		checkVertex(head);
+		if(tail == head) {
+			throw new IllegalArgumentException("arc " + tail + " -> " + head + " is a loop !");
+		}
+		if(arcQuantity == tails.length) {
+			ensureCapacity(Math.max(tails.length << 1, INITIAL_CAPACITY));
+		}
+		tails[arcQuantity] = tail;
+		heads[arcQuantity] = head;
+		costs[arcQuantity] = cost;
+		arcQuantity++;
+		return this;
+	}
+
+	/**
+	 * Ajoute des arcs donnés par trois tableaux de même taille.<br>
+	 * @param tails le sommet A de chaque arc
+	 * @param heads le sommet B de chaque arc
+	 * @param costs le coût de chaque arc
+	 * @return <b>this</b> ce constructeur
+	 * @throws IllegalArgumentException un arc est une boucle
+	 */
+	public GraphBuilder addArcs(int[] tails, int[] heads, int[] costs) {
+		if(tails.length != heads.length || tails.length != costs.length) {
+			throw new IllegalArgumentException("tails, heads and costs must have the same length");
+		}
+		ensureCapacity(arcQuantity + tails.length);
+		for(int i=0; i<tails.length; i++) {
+			addArc(tails[i], heads[i], costs[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * Ajoute les arcs d'un flux de triplets (sommet A, sommet B, coût), lus jusqu'à la fin du tampon.<br>
+	 * Le tampon peut être la projection en mémoire d'un fichier, par exemple le corps d'un fichier binaire de graphe.<br>
+	 * @param triples les triplets des arcs, à partir de la position courante du tampon
+	 * @return <b>this</b> ce constructeur
+	 * @throws IllegalArgumentException un arc est une boucle
+	 */
+	public GraphBuilder addArcs(IntBuffer triples) {
+		if(triples.remaining() % 3 != 0) {
+			throw new IllegalArgumentException("arcs are triples : " + triples.remaining() + " ints remaining");
+		}
+		ensureCapacity(arcQuantity + triples.remaining() / 3);
+		while(triples.hasRemaining()) {
+			addArc(triples.get(), triples.get(), triples.get());
+		}
+		return this;
+	}
+
+	/**
+	 * Réserve la place de <b>capacity</b> arcs au total.<br>
+	 * @param capacity le nombre d'arcs attendus
+	 * @return <b>this</b> ce constructeur
+	 */
+	public GraphBuilder ensureCapacity(int capacity) {
+		if(capacity > tails.length) {
+			tails = Arrays.copyOf(tails, capacity);
+			heads = Arrays.copyOf(heads, capacity);
+			costs = Arrays.copyOf(costs, capacity);
+		}
+		return this;
+	}
+
+	/**
+	 * Instancie le graphe, ses sommets et ses arcs.<br>
+	 * Les listes d'arcs des sommets sont construites en une seule passe sur les triplets :
+	 *  le degré de chaque sommet est compté, puis chaque arc est rangé dans la liste de ses deux sommets,
+	 *  dans l'ordre d'ajout.<br>
+	 * Le constructeur reste utilisable : chaque appel retourne un nouveau graphe.<br>
+	 * @param name le nom du graphe
+	 * @return <b>graph</b> le graphe
+	 */
+	public Graph build(String name) {
+		/* compte le nombre d'arcs de chaque sommet */
+		int[] degree = new int[weights.length];
+		for(int i=0; i<arcQuantity; i++) {
+			degree[tails[i]]++;
+			degree[heads[i]]++;
+		}
+		/* instancie les sommets avec leur poids et une liste d'arcs à la bonne taille */
+		List<Vertex> vertexs = new ArrayList<Vertex>(weights.length);
+		for(int v=0; v<weights.length; v++) {
+			vertexs.add(new Vertex(weights[v], new ArrayList<Arc>(degree[v])));
+		}
+		/* instancie les arcs avec leurs sommets et coût, et les range dans les listes de leurs sommets */
+		List<Arc> arcs = new ArrayList<Arc>(arcQuantity);
+		for(int i=0; i<arcQuantity; i++) {
+			Vertex vA = vertexs.get(tails[i]);
+			Vertex vB = vertexs.get(heads[i]);
+			Arc a = new Arc(vA, vB, costs[i]);
+			arcs.add(a);
+			vA.addArc(a);
+			vB.addArc(a);
+		}
+		return new Graph(name, weights.length, vertexs, arcs);
+	}
+
+	/**
+	 * Crée le graphe compact correspondant, sans instancier de sommet ni d'arc.<br>
+	 * @param name le nom du graphe
+	 * @return <b>graph</b> le graphe compact
+	 */
+	public CompactGraph buildCompact(String name) {
+		return new CompactGraph(name, weights, tails, heads, costs, arcQuantity);
+	}
+
+	private void checkVertex(int v) {
+		if(v < 0 || v >= weights.length) {
+			throw new IndexOutOfBoundsException("vertex " + v + " does not exist, " + weights.length + " vertex");
+		}
+	}
+
+}
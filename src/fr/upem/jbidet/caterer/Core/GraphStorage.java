@@ -0,0 +1,153 @@
+package fr.upem.jbidet.caterer.Core;
+
+import java.io.File;
+import java.io.IOError;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Représente l'emplacement des tableaux d'entiers d'un {@link CompactGraph} et des données lues par les parseurs.<br>
+ * Les tableaux sont des {@link IntBuffer} lus par index, quel que soit l'emplacement :
+ * <ul>
+ *  <li>{@link #HEAP} : dans le tas, comme un tableau Java ;</li>
+ *  <li>{@link #DIRECT} : hors du tas, dans des {@link ByteBuffer} directs, non parcourus par le ramasse-miettes ;</li>
+ *  <li>{@link #mapped(File)} : dans des fichiers temporaires projetés en mémoire, paginés par le système
+ *   lorsque la mémoire physique ne suffit pas.</li>
+ * </ul>
+ * Un tableau contient au plus <b>Integer.MAX_VALUE / 4</b> entiers.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public abstract class GraphStorage {
+
+	/** les tableaux sont rangés dans le tas */
+	public static final GraphStorage HEAP = new GraphStorage() {
+		@Override
+		public IntBuffer allocate(int size) {
+			return IntBuffer.allocate(size);
+		}
+		@Override
+		public String toString() {
+			return "heap";
+		}
+	};
+
+	/** les tableaux sont rangés hors du tas, dans des tampons directs */
+	public static final GraphStorage DIRECT = new GraphStorage() {
+		@Override
+		public IntBuffer allocate(int size) {
+			return ByteBuffer.allocateDirect(bytes(size)).order(ByteOrder.nativeOrder()).asIntBuffer();
+		}
+		@Override
+		public boolean isOffHeap() {
+			return true;
+		}
+		@Override
+		public String toString() {
+			return "direct";
+		}
+	};
+
+	/**
+	 * Retourne un emplacement rangeant chaque tableau dans un fichier temporaire projeté en mémoire.<br>
+	 * Les fichiers sont supprimés dès leur projection ; leur place sur le disque est libérée
+	 *  lorsque le tableau n'est plus référencé.<br>
+	 * @param directory le répertoire des fichiers temporaires
+	 * @return <b>storage</b> l'emplacement
+	 */
+	public static GraphStorage mapped(final File directory) {
+		return new GraphStorage() {
+			@Override
+			public IntBuffer allocate(int size) {
+				try {
+					File file = File.createTempFile("graph", ".ints", directory);
+					try(RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+						return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes(size)).order(ByteOrder.nativeOrder()).asIntBuffer();
+					} finally {
+						if(!file.delete()) {
+							file.deleteOnExit(); // un fichier projeté ne peut pas toujours être supprimé (Windows)
+						}
+					}
+				} catch(IOException e) {
+					throw new IOError(e);
+				}
+			}
+			@Override
+			public boolean isOffHeap() {
+				return true;
+			}
+			@Override
+			public String toString() {
+				return "mapped " + directory;
+			}
+		};
+	}
+
+	/**
+	 * Alloue un tableau d'entiers, initialisés à zéro.<br>
+	 * @param size le nombre d'entiers
+	 * @return <b>ints</b> le tableau
+	 * @throws IOError l'emplacement projeté n'a pas pu créer son fichier
+	 */
+	public abstract IntBuffer allocate(int size);
+
+	/**
+	 * Indique si les tableaux sont rangés hors du tas.<br>
+	 * @return <b>true</b> si les tableaux ne sont pas dans le tas
+	 */
+	public boolean isOffHeap() {
+		return false;
+	}
+
+	/**
+	 * Alloue un tableau plus grand contenant les <b>length</b> premiers entiers d'un autre.<br>
+	 * @param ints le tableau à recopier
+	 * @param length le nombre d'entiers à recopier
+	 * @param size la taille du nouveau tableau
+	 * @return <b>ints</b> le nouveau tableau
+	 */
+	public IntBuffer copyOf(IntBuffer ints, int length, int size) {
+		IntBuffer copy = allocate(size);
+		copy(ints, 0, copy, 0, length);
+		return copy;
+	}
+
+	/**
+	 * Alloue un tableau contenant une copie d'un tableau Java.<br>
+	 * @param ints le tableau à recopier
+	 * @return <b>ints</b> le nouveau tableau
+	 */
+	public IntBuffer copyOf(int[] ints) {
+		IntBuffer copy = allocate(ints.length);
+		copy.put(ints).clear();
+		return copy;
+	}
+
+	/**
+	 * Recopie des entiers d'un tableau dans un autre, sans modifier leur position.<br>
+	 * @param from le tableau source
+	 * @param fromIndex l'index du premier entier à lire
+	 * @param to le tableau destination
+	 * @param toIndex l'index du premier entier à écrire
+	 * @param length le nombre d'entiers
+	 */
+	public static void copy(IntBuffer from, int fromIndex, IntBuffer to, int toIndex, int length) {
+		IntBuffer source = from.duplicate();
+		source.limit(fromIndex + length).position(fromIndex);
+		IntBuffer destination = to.duplicate();
+		destination.position(toIndex);
+		destination.put(source);
+	}
+
+	private static int bytes(int size) {
+		if(size < 0 || size > Integer.MAX_VALUE / 4) {
+			throw new IllegalArgumentException("too many ints for one buffer : " + size);
+		}
+		return size * 4;
+	}
+
+}
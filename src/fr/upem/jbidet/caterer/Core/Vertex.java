@@ -1,179 +1,172 @@
-package fr.upem.jbidet.caterer.Core;
-
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * Reprsente un sommet dans un graphe. Possde un vecteur de poids et une liste d'arcs.<br>
- * @author Jeremy
- * @version 1.0
- * @see Arc
- */
-public class Vertex {
-	
-	private static int instance = 0;
-	private final int id; 
-	private int vertex_weight;
-	private int cost;
-	private List<Arc> arcs;
-	
-	/**
-	 * Cre un sommet avec un vecteur de poids et une liste d'arcs partant de ce dernier.<br>
-	 * @param vertex_weight le vecteur de poids
-	 * @param arcs la liste d'arcs
-	 */
-	public Vertex(int vertex_weight, List<Arc> arcs) {
-		this.id = instance++;
-		this.vertex_weight = vertex_weight;
-		this.arcs = arcs;
-	}
-	
-	/**
-	 * Cre un sommet avec un vecteur de poids et une liste d'arcs (passs en chaine) partant de ce dernier.<br>
-	 * @param vertex_weight le vecteur de poids
-	 * @param arcs la liste d'arcs
-	 */
-	public Vertex(int vertex_weight, Arc... arcs) {
-		this.id = instance++;
-		this.vertex_weight = vertex_weight;
-		this.arcs = new ArrayList<Arc>();
-		for(Arc a : arcs) {
-			this.arcs.add(a);
-		}
-	}
-	
-	public Vertex(int vertex_weight) {
-		this.id = instance++;
-		this.vertex_weight = vertex_weight;
-		this.arcs = new ArrayList<Arc>();
-	}
-	
-	/**
-	 * Retourne l'identifiant du sommet.<br>
-	 * @return <b>id</b> l'identifiant du sommet
-	 */
-	public int getId() {
-		return id;
-	}
-	
-	/**
-	 * Retourne le vecteur de poids de ce sommet.<br>
-	 * @return <b>vector_weight</b> le vecteur de poids
-	 */
-	public int getVertexWeight() {
-		return vertex_weight;
-	}
-	
-	/**
-	 * Retourne la liste d'arcs de ce sommet.<br>
-	 * @return <b>arcs</b> la liste d'arcs
-	 */
-	public List<Arc> getArcs() {
-		return arcs;
-	}
-	
-	/**
-	 * Retourne le <i>i-me</i> arc partant de ce sommet.<br>
-	 * @param index l'index de l'arc  retourner
-	 * @return <b>arc</b> l'arc  l'index <b>index</b>
-	 */
-	public Arc getArc(int index) {
-		return arcs.get(index);
-	}
-	
-	public int getCost() {
-		return cost;
-	}
-	
-	public void setCost(int cost) {
-		this.cost = cost;
-	}
-	
-	/**
-	 * Dfinie la liste des arcs de ce sommet.<br>
-	 * @param arcs la liste des arcs
-	 */
-	public void setArcs(List<Arc> arcs) {
-		this.arcs = arcs;
-	}
-	
-	/**
-	 * Ajoute un arc  la liste des arcs du sommet.<br>
-	 * @param a l'arc  ajouter
-	 * @return <b>true</b> si l'ajout s'est bien pass, sinon <b>false</b>
-	 */
-	public boolean addArc(Arc a) {
-		return arcs.add(a);
-	}
-	
-	/**
-	 * Ajoute des arcs au sommet.<br>
-	 * @param as les arcs  ajouter
-	 * @return <b>true</b> si l'ajout s'est bien pass, sinon <b>false</b>
-	 */
-	public boolean addArcs(Arc... as) {
-		boolean b = true;
-		for(Arc a : as) {
-			b &= arcs.add(a);
-		}
-		return b;
-	}
-	
-	/**
-	 * Ajoute une liste d'arcs au sommet.<br>
-	 * @param as la liste d'arcs  ajouter
-	 * @return <b>true</b> si l'ajout s'est bien pass, sinon <b>false</b>
-	 */
-	public boolean addArcs(List<Arc> as) {
-		return arcs.addAll(as);
-	}
-	
-	public boolean removeArc(Arc a) {
-			return arcs.remove(a);
-	}
-	
-	/**
-	 * Remet  zro le compteur d'instance.<br>
-	 */
-	protected static void resetInstance() {
-		instance = 0;
-	}
-	
-	/**
-	 * Vrifie que l'objet pass est bien une instance de {@link Vertex} dont les champs sont gaux  cette instance.
-	 */
-	@Override
-	public boolean equals(Object o) {
-		return o instanceof Vertex
-				&& ((Vertex)o).id == id
-				&& ((Vertex)o).vertex_weight == this.vertex_weight
-				&& ((Vertex)o).arcs.equals(this.arcs);
-	}
-	
-	/**
-	 * Affiche correctement l'intance de la classe {@link Vertex}.<br>
-	 */
-	@Override
-	public String toString() {
-		return "Vertex : {\n"
-				+ "\tid : " + id + "\n"
-				+ "\tvertex_weight : " + vertex_weight + "\n"
-				+ "\tcost : " + cost + "\n"
-				+ "\tarcs : {\n" + arcs.toString() + "\t}\n"
-				+"}\n";
-	}
-	
-	/**
-	 * Simple hash code pour un sommet : renvoie l'<b>id</b>.<br>
-	 * @return <b>id</b> l'idientifiant du sommet
-	 */
-	@Override
-	public int hashCode() {
-		return id;
-	}
-	
-	public Vertex clone() {
-		return new Vertex(vertex_weight, arcs);
-	}
-
-}
+package fr.upem.jbidet.caterer.Core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Représente un sommet dans un graphe. Possède un vecteur de poids et une liste d'arcs.<br>
+ * Deux sommets ne sont égaux que s'ils sont la même instance : le poids et les arcs d'un sommet changent,
+ *  et son identifiant n'est propre qu'à son graphe ; un sommet garde donc sa place dans un ensemble ou une table
+ *  lorsqu'il est modifié.<br>
+ * @author Jeremy
+ * @version 1.0
+ * @see Arc
+ */
+public class Vertex {
+	
+	private int id;
+	private int vertex_weight;
+	private int cost;
+	private List<Arc> arcs;
+	
+	/**
+	 * Crée un sommet avec un vecteur de poids et une liste d'arcs partant de ce dernier.<br>
+	 * @param vertex_weight le vecteur de poids
+	 * @param arcs la liste d'arcs
+	 */
+	public Vertex(int vertex_weight, List<Arc> arcs) {
+		this.id = -1;
+		this.vertex_weight = vertex_weight;
+		this.arcs = arcs;
+	}
+	
+	/**
+	 * Crée un sommet avec un vecteur de poids et une liste d'arcs (passés en chaine) partant de ce dernier.<br>
+	 * @param vertex_weight le vecteur de poids
+	 * @param arcs la liste d'arcs
+	 */
+	public Vertex(int vertex_weight, Arc... arcs) {
+		this.id = -1;
+		this.vertex_weight = vertex_weight;
+		this.arcs = new ArrayList<Arc>();
+		for(Arc a : arcs) {
+			this.arcs.add(a);
+		}
+	}
+	
+	public Vertex(int vertex_weight) {
+		this.id = -1;
+		this.vertex_weight = vertex_weight;
+		this.arcs = new ArrayList<Arc>();
+	}
+	
+	/**
+	 * Retourne l'identifiant du sommet : son index dans le graphe auquel il a été ajouté.<br>
+	 * @return <b>id</b> l'identifiant du sommet, ou <b>-1</b> si le sommet n'a été ajouté à aucun graphe
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * Définie l'identifiant du sommet ; attribué par le {@link Graph} qui reçoit le sommet.<br>
+	 * @param id l'identifiant
+	 */
+	void setId(int id) {
+		this.id = id;
+	}
+	
+	/**
+	 * Retourne le vecteur de poids de ce sommet.<br>
+	 * @return <b>vector_weight</b> le vecteur de poids
+	 */
+	public int getVertexWeight() {
+		return vertex_weight;
+	}
+
+	/**
+	 * Définie le vecteur de poids de ce sommet : négatif pour une source, positif pour un puits.<br>
+	 * @param vertex_weight le vecteur de poids
+	 */
+	public void setVertexWeight(int vertex_weight) {
+		this.vertex_weight = vertex_weight;
+	}
+
+	/**
+	 * Retourne la liste d'arcs de ce sommet.<br>
+	 * @return <b>arcs</b> la liste d'arcs
+	 */
+	public List<Arc> getArcs() {
+		return arcs;
+	}
+	
+	/**
+	 * Retourne le <i>i-ème</i> arc partant de ce sommet.<br>
+	 * @param index l'index de l'arc à retourner
+	 * @return <b>arc</b> l'arc à l'index <b>index</b>
+	 */
+	public Arc getArc(int index) {
+		return arcs.get(index);
+	}
+	
+	public int getCost() {
+		return cost;
+	}
+	
+	public void setCost(int cost) {
+		this.cost = cost;
+	}
+	
+	/**
+	 * Définie la liste des arcs de ce sommet.<br>
+	 * @param arcs la liste des arcs
+	 */
+	public void setArcs(List<Arc> arcs) {
+		this.arcs = arcs;
+	}
+	
+	/**
+	 * Ajoute un arc à la liste des arcs du sommet.<br>
+	 * @param a l'arc à ajouter
+	 * @return <b>true</b> si l'ajout s'est bien passé, sinon <b>false</b>
+	 */
+	public boolean addArc(Arc a) {
+		return arcs.add(a);
+	}
+	
+	/**
+	 * Ajoute des arcs au sommet.<br>
+	 * @param as les arcs à ajouter
+	 * @return <b>true</b> si l'ajout s'est bien passé, sinon <b>false</b>
+	 */
+	public boolean addArcs(Arc... as) {
+		boolean b = true;
+		for(Arc a : as) {
+			b &= arcs.add(a);
+		}
+		return b;
+	}
+	
+	/**
+	 * Ajoute une liste d'arcs au sommet.<br>
+	 * @param as la liste d'arcs à ajouter
+	 * @return <b>true</b> si l'ajout s'est bien passé, sinon <b>false</b>
+	 */
+	public boolean addArcs(List<Arc> as) {
+		return arcs.addAll(as);
+	}
+	
+	public boolean removeArc(Arc a) {
+			return arcs.remove(a);
+	}
+	
+	/**
+	 * Affiche correctement l'intance de la classe {@link Vertex}.<br>
+	 */
+	@Override
+	public String toString() {
+		return "Vertex : {\n"
+				+ "\tid : " + id + "\n"
+				+ "\tvertex_weight : " + vertex_weight + "\n"
+				+ "\tcost : " + cost + "\n"
+				+ "\tarcs : {\n" + arcs.toString() + "\t}\n"
+				+"}\n";
+	}
+	
+	public Vertex clone() {
+		Vertex vertex = new Vertex(vertex_weight, arcs);
+		vertex.id = id;
+		return vertex;
+	}
+
+}
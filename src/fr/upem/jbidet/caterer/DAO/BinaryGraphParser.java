@@ -0,0 +1,197 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import fr.upem.jbidet.caterer.Core.CompactGraph;
+import fr.upem.jbidet.caterer.Core.Graph;
+import fr.upem.jbidet.caterer.Core.GraphStorage;
+import fr.upem.jbidet.caterer.DAO.GraphFormatException.Violation;
+
+/**
+ * Représente le parseur des fichiers binaires de graphe décrits par {@link BinaryPattern}.<br>
+ * Le fichier est projeté en mémoire et lu au travers de vues {@link IntBuffer}, sans copie intermédiaire.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public class BinaryGraphParser implements BinaryPattern {
+
+	private int maxArcs;
+	private boolean duplicateCheck;
+	private GraphStorage storage;
+
+	/**
+	 * Crée un parseur de fichiers binaires, limité au nombre d'arcs des tableaux des arcs et recherchant les arcs en double.<br>
+	 */
+	public BinaryGraphParser() {
+		this.maxArcs = GraphData.MAX_ARCS;
+		this.duplicateCheck = true;
+		this.storage = GraphStorage.HEAP;
+	}
+
+	/**
+	 * Crée un parseur de fichiers binaires ayant les réglages d'un parseur de fichiers texte :
+	 *  nombre maximal d'arcs, recherche des arcs en double et emplacement des tableaux.<br>
+	 * @param parser le parseur de fichiers texte
+	 */
+	BinaryGraphParser(GraphParser parser) {
+		this.maxArcs = parser.getMaxArcs();
+		this.duplicateCheck = parser.isDuplicateCheck();
+		this.storage = parser.getStorage();
+	}
+
+	/**
+	 * Retourne le nombre maximal d'arcs accepté dans un fichier.<br>
+	 * @return <b>maxArcs</b> le nombre maximal d'arcs
+	 */
+	public int getMaxArcs() {
+		return maxArcs;
+	}
+
+	/**
+	 * Définie le nombre maximal d'arcs accepté dans un fichier : un en-tête annonçant plus d'arcs est rejeté avant toute lecture.<br>
+	 * La limite ne peut pas dépasser <b>Integer.MAX_VALUE / 4</b>, la taille maximale des tableaux des arcs ;
+	 *  une limite plus grande y est ramenée.<br>
+	 * @param maxArcs le nombre maximal d'arcs
+	 */
+	public void setMaxArcs(int maxArcs) {
+		if(maxArcs < 1) {
+			throw new IllegalArgumentException("max arcs must be positive : " + maxArcs);
+		}
+		this.maxArcs = Math.min(maxArcs, GraphData.MAX_ARCS);
+	}
+
+	/**
+	 * Indique si les arcs en double (mêmes sommets dans le même sens) sont recherchés pendant la lecture.<br>
+	 * @return <b>true</b> si les arcs en double sont recherchés
+	 */
+	public boolean isDuplicateCheck() {
+		return duplicateCheck;
+	}
+
+	/**
+	 * Active ou désactive la recherche des arcs en double pendant la lecture.<br>
+	 * @param duplicateCheck <b>true</b> pour rechercher les arcs en double
+	 */
+	public void setDuplicateCheck(boolean duplicateCheck) {
+		this.duplicateCheck = duplicateCheck;
+	}
+
+	/**
+	 * Projette un fichier binaire en mémoire, en lecture seule et dans l'ordre des octets du format.<br>
+	 * @param file le fichier binaire
+	 * @return <b>buffer</b> le contenu du fichier
+	 * @throws IOException erreur de lecture, ou fichier plus grand qu'une projection
+	 */
+	static ByteBuffer map(File file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("File is too large to be mapped : " + channel.size() + " bytes");
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(byteOrder);
+		}
+	}
+
+	/**
+	 * Vérifie l'en-tête d'un graphe binaire et la taille du contenu.<br>
+	 * @param buffer le contenu du fichier
+	 * @return <b>header</b> le nombre de sommets et le nombre d'arcs
+	 * @throws GraphFormatException l'en-tête ne correspond pas au format
+	 */
+	static int[] readHeader(ByteBuffer buffer) throws GraphFormatException {
+		if(buffer.remaining() < headerSize) {
+			throw new GraphFormatException("File is corrupted : header is truncated !");
+		}
+		IntBuffer header = buffer.duplicate().order(byteOrder).asIntBuffer();
+		if(header.get(0) != magicNumber) {
+			throw new GraphFormatException("File is corrupted : not a binary graph file !");
+		}
+		if(header.get(1) != formatVersion) {
+			throw new GraphFormatException("Unsupported binary graph version : " + header.get(1));
+		}
+		int vertexQuantity = header.get(2);
+		int arcQuantity = header.get(3);
+		if(vertexQuantity < 0 || arcQuantity < 0
+				|| buffer.remaining() != headerSize + 4L * vertexQuantity + 12L * arcQuantity) {
+			throw new GraphFormatException("File is corrupted : size does not match vertex and arc quantities !");
+		}
+		return new int[] { vertexQuantity, arcQuantity };
+	}
+
+	/**
+	 * Retourne l'emplacement des tableaux des arcs lus.<br>
+	 * @return <b>storage</b> l'emplacement des tableaux
+	 */
+	public GraphStorage getStorage() {
+		return storage;
+	}
+
+	/**
+	 * Définie l'emplacement des tableaux des arcs lus, et des graphes compacts retournés par {@link #parseCompactFile(File)}.<br>
+	 * @param storage l'emplacement des tableaux
+	 */
+	public void setStorage(GraphStorage storage) {
+		this.storage = storage;
+	}
+
+	/**
+	 * Lit et vérifie les données d'un graphe binaire.<br>
+	 * @param buffer le contenu du fichier, à partir de l'en-tête
+	 * @return <b>data</b> les données brutes du graphe
+	 * @throws GraphFormatException le contenu ne correspond pas au format
+	 */
+	GraphData parse(ByteBuffer buffer) throws GraphFormatException {
+		int[] header = readHeader(buffer);
+		int vertexQuantity = header[0];
+		int arcQuantity = header[1];
+		IntBuffer ints = buffer.duplicate().order(byteOrder).asIntBuffer();
+		ints.position(headerSize / 4);
+		GraphValidator validator = new GraphValidator(vertexQuantity, maxArcs, duplicateCheck);
+		if(arcQuantity > maxArcs) {
+			throw new GraphFormatException(Violation.ARC_QUANTITY, "more than " + maxArcs + " arcs !");
+		}
+		GraphData data = new GraphData(new int[vertexQuantity], arcQuantity, storage);
+		ints.get(data.weights);
+		validator.checkWeights(data.weights);
+		if(arcQuantity == 0) {
+			throw new GraphFormatException("at least one arc expected");
+		}
+		for(int i=0; i<arcQuantity; i++) {
+			int tail = ints.get();
+			int head = ints.get();
+			validator.checkArc(tail, head);
+			data.addArc(tail, head, ints.get());
+		}
+		return data;
+	}
+
+	/**
+	 * Lit les données d'un graphe depuis un fichier binaire.<br>
+	 * @param file le fichier binaire
+	 * @return <b>data</b> les données brutes du graphe
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le contenu est corrompu
+	 */
+	GraphData parseData(File file) throws IOException {
+		return parse(map(file));
+	}
+
+	@Override
+	public Graph parseFile(File file) throws IOException {
+		return parseData(file).toGraph(file.getName());
+	}
+
+	/**
+	 * Lit un graphe binaire sous forme compacte, dont les tableaux sont rangés à l'emplacement du parseur.<br>
+	 * @param file le fichier binaire
+	 * @return <b>graph</b> le graphe compact
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le contenu est corrompu
+	 */
+	public CompactGraph parseCompactFile(File file) throws IOException {
+		return parseData(file).toCompactGraph(file.getName());
+	}
+
+}
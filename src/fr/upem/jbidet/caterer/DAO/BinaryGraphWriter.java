@@ -0,0 +1,105 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import fr.upem.jbidet.caterer.Core.Arc;
+import fr.upem.jbidet.caterer.Core.Graph;
+
+/**
+ * Écrit un graphe dans le format binaire décrit par {@link BinaryPattern}.<br>
+ * Permet aussi de convertir un fichier texte ({@link FilePattern}) en fichier binaire.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public class BinaryGraphWriter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final GraphParser parser;
+
+	/**
+	 * Crée un écrivain utilisant un parseur séquentiel pour les conversions.<br>
+	 */
+	public BinaryGraphWriter() {
+		this(new GraphParser());
+	}
+
+	/**
+	 * Crée un écrivain utilisant <b>parser</b> pour lire les fichiers texte à convertir.<br>
+	 * @param parser le parseur des fichiers texte
+	 */
+	public BinaryGraphWriter(GraphParser parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * Écrit un graphe dans un fichier binaire.<br>
+	 * @param graph le graphe à écrire
+	 * @param file le fichier binaire
+	 * @throws IOException erreur d'écriture
+	 */
+	public void writeFile(Graph graph, File file) throws IOException {
+		GraphData data = new GraphData(graph.getVertex().size(), graph.getArcsQuantity());
+		for(int i=0; i<data.weights.length; i++) {
+			data.weights[i] = graph.getVertex(i).getVertexWeight();
+		}
+		for(Arc a : graph.getArcs()) {
+			data.addArc(a.getVertexA().getId(), a.getVertexB().getId(), a.getCost());
+		}
+		write(data, file);
+	}
+
+	/**
+	 * Convertit un fichier texte en fichier binaire, sans instancier le graphe.<br>
+	 * @param text le fichier texte
+	 * @param binary le fichier binaire à créer
+	 * @throws IOException erreur de lecture ou d'écriture, ou {@link GraphFormatException} si le fichier texte est corrompu
+	 */
+	public void convert(File text, File binary) throws IOException {
+		write(parser.parseData(text), binary);
+	}
+
+	/**
+	 * Écrit les données d'un graphe dans un fichier binaire.<br>
+	 * @param data les données brutes du graphe
+	 * @param file le fichier binaire
+	 * @throws IOException erreur d'écriture
+	 */
+	void write(GraphData data, File file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BinaryPattern.byteOrder);
+			IntBuffer ints = buffer.asIntBuffer();
+			ints.put(BinaryPattern.magicNumber).put(BinaryPattern.formatVersion).put(data.weights.length).put(data.arcQuantity);
+			for(int w : data.weights) {
+				if(!ints.hasRemaining()) {
+					flush(channel, buffer, ints);
+				}
+				ints.put(w);
+			}
+			for(int i=0; i<data.arcQuantity; i++) {
+				if(ints.remaining() < 3) {
+					flush(channel, buffer, ints);
+				}
+				ints.put(data.tails.get(i)).put(data.heads.get(i)).put(data.costs.get(i));
+			}
+			flush(channel, buffer, ints);
+		}
+	}
+
+	/* écrit les entiers accumulés dans la vue puis la vide */
+	private static void flush(FileChannel channel, ByteBuffer buffer, IntBuffer ints) throws IOException {
+		buffer.limit(ints.position() * 4).position(0);
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+		ints.clear();
+	}
+
+}
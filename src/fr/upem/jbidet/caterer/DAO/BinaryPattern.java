@@ -0,0 +1,43 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import fr.upem.jbidet.caterer.Core.Graph;
+
+/**
+ * Définit le format binaire compact d'un graphe et la méthode permettant de le lire.<br>
+ * Le fichier est une suite d'entiers sur 4 octets, en petit-boutiste :
+ * <ol>
+ *  <li>en-tête : nombre magique, version du format, nombre de sommets, nombre d'arcs ;</li>
+ *  <li>vecteur des poids des sommets, un entier par sommet ;</li>
+ *  <li>triplets (sommet A, sommet B, coût), un par arc.</li>
+ * </ol>
+ * Le fichier peut ainsi être projeté en mémoire et lu directement, sans analyse du texte décrit par {@link FilePattern}.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public interface BinaryPattern {
+
+	public final int magicNumber = 0x43475242; // "CGRB"
+
+	public final int formatVersion = 1;
+
+	public final int headerSize = 4 * 4;
+
+	public final ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+
+	public final String fileExtension = ".cgb";
+
+	/**
+	 * Extrait les données d'un graphe depuis un fichier binaire et renvoie une instance de ce graphe.<br>
+	 * Le graphe est vérifié pendant la lecture, qui s'arrête à la première erreur.<br>
+	 * @param file le fichier binaire contenant le graphe
+	 * @return <b>graph</b> le graphe d'après le fichier
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le fichier est corrompu ou le graphe invalide
+	 * @see Graph
+	 */
+	public Graph parseFile(File file) throws IOException;
+
+}
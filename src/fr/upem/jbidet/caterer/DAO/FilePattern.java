@@ -1,53 +1,54 @@
-package fr.upem.jbidet.caterer.DAO;
-
-import java.io.File;
-
-import fr.upem.jbidet.caterer.Core.Graph;
-
-/**
- * Implmente l'expression rgulire et la mthode permettant de parser le fichier contenant le graphe.<br>
- * @author Melody
- * @version 1.0
- */
-public interface FilePattern {
-
-	public final String graphRegExp = ""
-			+ "(?<graph>"
-				+ "(\\s*(//.*)?)*" 								// commentaires avant <vertexQuantity>
-				+ "(?<vertexQuantity>[+]?\\d+)"					// nombre de sommets
-				+ "(\\s*(//.*)?)*" + "\\n"						// commentaires entre <vertexQuantity> et <vertexList>
-				+ "(?<vertexList>"
-					+ "([+-]?\\d+ )+"							// liste des poids des sommets (sauf le dernier)
-					+ "([+-]?\\d+)"								// le dernier poids de sommet de la liste
-				+ ")"
-				+ "(?<arcList>"									// liste des arcs du graphe
-					+ "("
-						+ "(\\s*(//.*)?)*" + "\\n"				// commentaires entre <vertexList> et <arcList>, ou  la fin d'un <arc>, ou entre les <arc>
-						+ "([+]?\\d+) ([+]?\\d+) ([+-]?\\d+)"	// un arc avec son vA, vB et son cot
-					+ ")+"
-				+ ")"
-				+ "(\\s*(//.*)?)*"								// commentaires de fin de fichiers (aprs <arcList>)
-			+ ")";
-	
-	public final String vertexRegExp = ""
-			+ "((?<vertexWeight>[+-]?\\d+) ?)"; // liste des poids des sommets (sauf le dernier)
-	
-	public final String arcRegExp = ""
-			+ "(?<arc>"
-				+ "(\\s*(//.*)?)*" + "\\n"		// commentaires entre <vertexList> et <arcList>, ou  la fin d'un <arc>, ou entre les <arc>
-				+ "(?<vertexA>[+]?\\d+)" + " "	// sommet A de l'arc
-				+ "(?<vertexB>[+]?\\d+)" + " "	// sommet B de l'arc
-				+ "(?<cost>[+-]?\\d+)" 			// cot de l'arc
-			+ ")";
-	
-	/**
-	 * Extrait les donnes d'un graphe depuis un fichier et renvoie une instance de ce graphe.<br>
-	 * L'utilisateur doit tester la valeur de retour de la mthode.<br>
-	 * @param file le fichier contenant le graphe
-	 * @return <b>graph</b> le graphe d'aprs le fichier,<br>
-	 * <b>null</b> si le fichier est corrompu 
-	 * @see Graph
-	 */
-	public Graph parseFile(File file);
-	
-}
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.IOException;
+
+import fr.upem.jbidet.caterer.Core.Graph;
+
+/**
+ * Implémente l'expression régulière et la méthode permettant de parser le fichier contenant le graphe.<br>
+ * @author Melody
+ * @version 1.0
+ */
+public interface FilePattern {
+
+	public final String graphRegExp = ""
+			+ "(?<graph>"
+				+ "(\\s*(//.*)?)*" 								// commentaires avant <vertexQuantity>
+				+ "(?<vertexQuantity>[+]?\\d+)"					// nombre de sommets
+				+ "(\\s*(//.*)?)*" + "\\n"						// commentaires entre <vertexQuantity> et <vertexList>
+				+ "(?<vertexList>"
+					+ "([+-]?\\d+ )+"							// liste des poids des sommets (sauf le dernier)
+					+ "([+-]?\\d+)"								// le dernier poids de sommet de la liste
+				+ ")"
+				+ "(?<arcList>"									// liste des arcs du graphe
+					+ "("
+						+ "(\\s*(//.*)?)*" + "\\n"				// commentaires entre <vertexList> et <arcList>, ou à la fin d'un <arc>, ou entre les <arc>
+						+ "([+]?\\d+) ([+]?\\d+) ([+-]?\\d+)"	// un arc avec son vA, vB et son coût
+					+ ")+"
+				+ ")"
+				+ "(\\s*(//.*)?)*"								// commentaires de fin de fichiers (après <arcList>)
+			+ ")";
+	
+	public final String vertexRegExp = ""
+			+ "((?<vertexWeight>[+-]?\\d+) ?)"; // liste des poids des sommets (sauf le dernier)
+	
+	public final String arcRegExp = ""
+			+ "(?<arc>"
+				+ "(\\s*(//.*)?)*" + "\\n"		// commentaires entre <vertexList> et <arcList>, ou à la fin d'un <arc>, ou entre les <arc>
+				+ "(?<vertexA>[+]?\\d+)" + " "	// sommet A de l'arc
+				+ "(?<vertexB>[+]?\\d+)" + " "	// sommet B de l'arc
+				+ "(?<cost>[+-]?\\d+)" 			// coût de l'arc
+			+ ")";
+	
+	/**
+	 * Extrait les données d'un graphe depuis un fichier et renvoie une instance de ce graphe.<br>
+	 * Le graphe est vérifié pendant la lecture, qui s'arrête à la première erreur.<br>
+	 * @param file le fichier contenant le graphe
+	 * @return <b>graph</b> le graphe d'après le fichier
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le fichier est corrompu ou le graphe invalide
+	 * @see Graph
+	 */
+	public Graph parseFile(File file) throws IOException;
+	
+}
@@ -0,0 +1,128 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import fr.upem.jbidet.caterer.Core.Graph;
+
+/**
+ * Lit un lot de fichiers de graphe en parallèle sur un nombre borné de threads.<br>
+ * Chaque graphe est transmis à un {@link GraphConsumer} dès que sa lecture est terminée,
+ *  sans attendre les autres fichiers du lot.<br>
+ * Les fichiers texte ({@link FilePattern}) sont lus par un {@link GraphParser},
+ *  les fichiers binaires ({@link BinaryPattern}) par un {@link BinaryGraphParser} ayant les mêmes réglages
+ *  (nombre maximal d'arcs, recherche des arcs en double, emplacement des tableaux).<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public class GraphBatchParser {
+
+	private final GraphParser parser;
+	private final int threads;
+
+	/**
+	 * Crée un lecteur de lots utilisant un thread par processeur.<br>
+	 */
+	public GraphBatchParser() {
+		this(new GraphParser(), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Crée un lecteur de lots.<br>
+	 * @param parser le parseur des fichiers texte, dont les réglages s'appliquent aussi aux fichiers binaires
+	 * @param threads le nombre maximal de fichiers lus en même temps
+	 */
+	public GraphBatchParser(GraphParser parser, int threads) {
+		if(threads < 1) {
+			throw new IllegalArgumentException("threads must be positive : " + threads);
+		}
+		this.parser = parser;
+		this.threads = threads;
+	}
+
+	/**
+	 * Lit tous les fichiers d'un répertoire dont le nom correspond à un motif.<br>
+	 * @param directory le répertoire contenant les graphes
+	 * @param glob le motif des noms de fichiers (par exemple <b>*.gz</b>), voir {@link java.nio.file.FileSystem#getPathMatcher(String)}
+	 * @param consumer le destinataire des graphes lus
+	 * @throws IOException erreur de lecture du répertoire
+	 * @throws InterruptedException le thread a été interrompu pendant la lecture du lot
+	 */
+	public void parseDirectory(File directory, String glob, GraphConsumer consumer) throws IOException, InterruptedException {
+		List<File> files = new ArrayList<File>();
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), glob)) {
+			for(Path path : stream) {
+				if(Files.isRegularFile(path)) {
+					files.add(path.toFile());
+				}
+			}
+		}
+		Collections.sort(files);
+		parseFiles(files, consumer);
+	}
+
+	/**
+	 * Lit une liste de fichiers en parallèle.<br>
+	 * Les graphes sont transmis dans l'ordre où leur lecture se termine.<br>
+	 * @param files les fichiers à lire
+	 * @param consumer le destinataire des graphes lus
+	 * @throws InterruptedException le thread a été interrompu pendant la lecture du lot
+	 */
+	public void parseFiles(List<File> files, GraphConsumer consumer) throws InterruptedException {
+		if(files.isEmpty()) {
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+		try {
+			CompletionService<Graph> completion = new ExecutorCompletionService<Graph>(executor);
+			Map<Future<Graph>, File> futures = new HashMap<Future<Graph>, File>(files.size() * 2);
+			for(final File file : files) {
+				futures.put(completion.submit(new Callable<Graph>() {
+					@Override
+					public Graph call() throws IOException {
+						return parse(file);
+					}
+				}), file);
+			}
+			for(int i=0; i<files.size(); i++) {
+				Future<Graph> future = completion.take();
+				File file = futures.get(future);
+				try {
+					consumer.accept(file, future.get());
+				} catch(ExecutionException e) {
+					if(e.getCause() instanceof IOException) {
+						consumer.failed(file, (IOException)e.getCause());
+					} else {
+						consumer.failed(file, new IOException(e.getCause()));
+					}
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/* lit un fichier avec le parseur correspondant à son format, les réglages du parseur de texte étant lus à chaque fichier */
+	private Graph parse(File file) throws IOException {
+		if(file.getName().endsWith(BinaryPattern.fileExtension)) {
+			return new BinaryGraphParser(parser).parseFile(file);
+		}
+		return parser.parseFile(file);
+	}
+
+}
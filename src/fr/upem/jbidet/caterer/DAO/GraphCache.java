@@ -0,0 +1,202 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import fr.upem.jbidet.caterer.Core.Graph;
+
+/**
+ * Cache des graphes lus, placé devant un {@link GraphParser} et indexé par l'empreinte SHA-256 du contenu des fichiers.<br>
+ * Un fichier déjà lu n'est pas analysé une seconde fois :
+ * <ol>
+ *  <li>ses données sont cherchées en mémoire, dans un cache LRU limité en octets ;</li>
+ *  <li>sinon dans un instantané binaire ({@link BinaryPattern}) rangé dans le répertoire <b>.caterer</b> à côté du fichier ;</li>
+ *  <li>sinon le fichier est lu par le parseur, et ses données sont ajoutées au cache et à l'instantané.</li>
+ * </ol>
+ * Un instantané est relu avec les réglages du parseur (nombre maximal d'arcs, recherche des arcs en double, emplacement des tableaux),
+ *  et les données en mémoire sont indexées par ces réglages en plus de l'empreinte : le cache retourne les mêmes données
+ *  que le parseur seul. Un instantané illisible (tronqué, corrompu, ou d'une autre version du format) est remplacé
+ *  par une nouvelle lecture du fichier.<br>
+ * Chaque appel retourne une nouvelle instance de {@link Graph}, les graphes pouvant être modifiés par leur utilisateur.<br>
+ * Le cache peut être partagé entre plusieurs threads.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public class GraphCache implements FilePattern {
+
+	/** répertoire des instantanés, créé à côté des fichiers lus */
+	public static final String SNAPSHOT_DIRECTORY = ".caterer";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final GraphParser parser;
+	private final BinaryGraphWriter snapshotWriter;
+	private final long byteBudget;
+	private final LinkedHashMap<String, GraphData> cache;
+	private long bytes;
+	private boolean snapshots;
+
+	/**
+	 * Crée un cache devant un parseur.<br>
+	 * @param parser le parseur utilisé lorsque le graphe n'est pas dans le cache
+	 * @param byteBudget la place maximale occupée en mémoire par les graphes du cache, en octets
+	 */
+	public GraphCache(GraphParser parser, long byteBudget) {
+		this.parser = parser;
+		this.snapshotWriter = new BinaryGraphWriter(parser);
+		this.byteBudget = byteBudget;
+		this.cache = new LinkedHashMap<String, GraphData>(16, 0.75f, true);
+		this.snapshots = true;
+	}
+
+	/**
+	 * Indique si les instantanés binaires sont lus et écrits à côté des fichiers.<br>
+	 * @return <b>true</b> si les instantanés sont utilisés
+	 */
+	public boolean isSnapshots() {
+		return snapshots;
+	}
+
+	/**
+	 * Active ou désactive les instantanés binaires ; le cache en mémoire reste actif.<br>
+	 * @param snapshots <b>true</b> pour utiliser les instantanés
+	 */
+	public void setSnapshots(boolean snapshots) {
+		this.snapshots = snapshots;
+	}
+
+	/**
+	 * Retourne la place occupée en mémoire par les graphes du cache.<br>
+	 * @return <b>bytes</b> le nombre d'octets occupés
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Vide le cache en mémoire ; les instantanés ne sont pas supprimés.<br>
+	 */
+	public synchronized void clear() {
+		cache.clear();
+		bytes = 0;
+	}
+
+	@Override
+	public Graph parseFile(File file) throws IOException {
+		return parseData(file).toGraph(file.getName());
+	}
+
+	/**
+	 * Retourne les données d'un graphe depuis le cache, un instantané ou le fichier lui-même.<br>
+	 * @param file le fichier contenant le graphe
+	 * @return <b>data</b> les données brutes du graphe, partagées : elles ne doivent pas être modifiées
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le fichier est corrompu
+	 */
+	GraphData parseData(File file) throws IOException {
+		String digest = digest(file);
+		String key = digest + '/' + parser.getMaxArcs() + '/' + parser.isDuplicateCheck() + '/' + parser.getStorage();
+		GraphData data = get(key);
+		if(data != null) {
+			return data;
+		}
+		File snapshot = snapshot(file, digest);
+		if(snapshots && snapshot.isFile()) {
+			data = readSnapshot(snapshot);
+		}
+		if(data == null) {
+			data = parser.parseData(file);
+			if(snapshots) {
+				writeSnapshot(data, snapshot);
+			}
+		}
+		data.trim();
+		put(key, data);
+		return data;
+	}
+
+	/**
+	 * Lit un instantané avec les réglages du parseur.<br>
+	 * @param snapshot l'instantané
+	 * @return <b>data</b> les données du graphe, ou <b>null</b> si l'instantané est illisible ou rejeté :
+	 *  le fichier est alors lu à nouveau, et l'instantané réécrit s'il est accepté
+	 */
+	private GraphData readSnapshot(File snapshot) {
+		try {
+			return new BinaryGraphParser(parser).parseData(snapshot);
+		} catch(IOException e) {
+			return null; // GraphFormatException comprise
+		}
+	}
+
+	private synchronized GraphData get(String key) {
+		return cache.get(key);
+	}
+
+	/* ajoute des données au cache puis retire les moins récemment utilisées jusqu'à respecter le budget */
+	private synchronized void put(String key, GraphData data) {
+		long size = data.byteSize();
+		if(size > byteBudget) {
+			return;
+		}
+		GraphData old = cache.put(key, data);
+		bytes += size - (old == null ? 0 : old.byteSize());
+		Iterator<Map.Entry<String, GraphData>> it = cache.entrySet().iterator();
+		while(bytes > byteBudget && it.hasNext()) {
+			bytes -= it.next().getValue().byteSize();
+			it.remove();
+		}
+	}
+
+	private static File snapshot(File file, String key) {
+		File directory = new File(file.getAbsoluteFile().getParentFile(), SNAPSHOT_DIRECTORY);
+		return new File(directory, key + BinaryPattern.fileExtension);
+	}
+
+	/* écrit l'instantané dans un fichier temporaire puis le renomme, pour qu'un lecteur ne voie jamais un instantané partiel */
+	private void writeSnapshot(GraphData data, File snapshot) {
+		File directory = snapshot.getParentFile();
+		File tmp = null;
+		try {
+			Files.createDirectories(directory.toPath());
+			tmp = File.createTempFile("snapshot", ".tmp", directory);
+			snapshotWriter.write(data, tmp);
+			Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch(IOException e) {
+			/* le cache reste utilisable sans instantané, par exemple dans un répertoire en lecture seule */
+			if(tmp != null) {
+				tmp.delete();
+			}
+		}
+	}
+
+	/* calcule l'empreinte SHA-256 du contenu d'un fichier, en hexadécimal */
+	private static String digest(File file) throws IOException {
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("SHA-256");
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		byte[] buffer = new byte[BUFFER_SIZE];
+		try(InputStream in = new FileInputStream(file)) {
+			for(int read; (read = in.read(buffer)) >= 0; ) {
+				md.update(buffer, 0, read);
+			}
+		}
+		StringBuilder sb = new StringBuilder(64);
+		for(byte b : md.digest()) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,30 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.IOException;
+
+import fr.upem.jbidet.caterer.Core.Graph;
+
+/**
+ * Reçoit les graphes lus par un {@link GraphBatchParser}, au fur et à mesure que leur lecture se termine.<br>
+ * Les méthodes sont appelées sur le thread qui a lancé la lecture, jamais en même temps.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public interface GraphConsumer {
+
+	/**
+	 * Reçoit un graphe lu.<br>
+	 * @param file le fichier d'où provient le graphe
+	 * @param graph le graphe
+	 */
+	public void accept(File file, Graph graph);
+
+	/**
+	 * Signale un fichier qui n'a pas pu être lu.<br>
+	 * @param file le fichier en erreur
+	 * @param e l'erreur de lecture, ou {@link GraphFormatException} si le fichier est corrompu
+	 */
+	public void failed(File file, IOException e);
+
+}
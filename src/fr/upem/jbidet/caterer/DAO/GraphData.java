@@ -0,0 +1,158 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.nio.IntBuffer;
+
+import fr.upem.jbidet.caterer.Core.Arc;
+import fr.upem.jbidet.caterer.Core.CompactGraph;
+import fr.upem.jbidet.caterer.Core.Graph;
+import fr.upem.jbidet.caterer.Core.GraphBuilder;
+import fr.upem.jbidet.caterer.Core.GraphStorage;
+import fr.upem.jbidet.caterer.Core.Vertex;
+import fr.upem.jbidet.caterer.DAO.GraphFormatException.Violation;
+
+/**
+ * Contient les données brutes d'un graphe lu depuis un fichier, dans des tableaux d'entiers :
+ *  le vecteur des poids des sommets et les triplets (sommet A, sommet B, coût) des arcs.<br>
+ * Évite de créer un objet par arc pendant la lecture ; les {@link Vertex} et {@link Arc}
+ *  ne sont instanciés qu'une fois le fichier entièrement lu.<br>
+ * Les tableaux des arcs sont alloués par un {@link GraphStorage}, dans le tas ou hors du tas ;
+ *  seul le vecteur des poids, de la taille du nombre de sommets, reste toujours dans le tas.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+final class GraphData {
+
+	private static final int INITIAL_CAPACITY = 16;
+	/** le nombre maximal d'arcs : la taille en octets d'un tableau des arcs hors du tas doit tenir dans un entier */
+	static final int MAX_ARCS = Integer.MAX_VALUE / 4;
+
+	final GraphStorage storage;
+	final int[] weights;
+	IntBuffer tails;
+	IntBuffer heads;
+	IntBuffer costs;
+	int arcQuantity;
+
+	/**
+	 * Crée les données d'un graphe à <b>vertexQuantity</b> sommets, sans arc.<br>
+	 * @param vertexQuantity le nombre de sommets
+	 */
+	GraphData(int vertexQuantity) {
+		this(vertexQuantity, INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Crée les données d'un graphe à <b>vertexQuantity</b> sommets, pouvant recevoir <b>arcCapacity</b> arcs sans réallocation.<br>
+	 * @param vertexQuantity le nombre de sommets
+	 * @param arcCapacity le nombre d'arcs attendus
+	 */
+	GraphData(int vertexQuantity, int arcCapacity) {
+		this(new int[vertexQuantity], arcCapacity);
+	}
+
+	/**
+	 * Crée les données d'un graphe dont les sommets ont les poids <b>weights</b>, pouvant recevoir <b>arcCapacity</b> arcs sans réallocation.<br>
+	 * @param weights le vecteur des poids des sommets
+	 * @param arcCapacity le nombre d'arcs attendus
+	 */
+	GraphData(int[] weights, int arcCapacity) {
+		this(weights, arcCapacity, GraphStorage.HEAP);
+	}
+
+	/**
+	 * Crée les données d'un graphe dont les sommets ont les poids <b>weights</b>,
+	 *  dont les tableaux des arcs sont alloués par <b>storage</b>.<br>
+	 * @param weights le vecteur des poids des sommets
+	 * @param arcCapacity le nombre d'arcs attendus
+	 * @param storage l'emplacement des tableaux des arcs
+	 */
+	GraphData(int[] weights, int arcCapacity, GraphStorage storage) {
+		this.storage = storage;
+		this.weights = weights;
+		this.tails = storage.allocate(Math.max(arcCapacity, 1));
+		this.heads = storage.allocate(Math.max(arcCapacity, 1));
+		this.costs = storage.allocate(Math.max(arcCapacity, 1));
+	}
+
+	/**
+	 * Ajoute un arc allant du sommet <b>tail</b> au sommet <b>head</b>.<br>
+	 * @param tail l'index du sommet A
+	 * @param head l'index du sommet B
+	 * @param cost le coût de l'arc
+	 * @throws GraphFormatException les données contiennent déjà {@link #MAX_ARCS} arcs
+	 */
+	void addArc(int tail, int head, int cost) throws GraphFormatException {
+		if(arcQuantity == tails.capacity()) {
+			if(arcQuantity == MAX_ARCS) {
+				throw new GraphFormatException(Violation.ARC_QUANTITY, "more than " + MAX_ARCS + " arcs !");
+			}
+			resize((int)Math.min(Math.max((long)tails.capacity() << 1, INITIAL_CAPACITY), MAX_ARCS));
+		}
+		tails.put(arcQuantity, tail);
+		heads.put(arcQuantity, head);
+		costs.put(arcQuantity, cost);
+		arcQuantity++;
+	}
+
+	/**
+	 * Réduit les tableaux des arcs au nombre d'arcs, pour les données conservées longtemps.<br>
+	 */
+	void trim() {
+		if(tails.capacity() > arcQuantity) {
+			resize(arcQuantity);
+		}
+	}
+
+	/* réalloue les tableaux des arcs à la capacité donnée, en conservant les arcs */
+	private void resize(int capacity) {
+		tails = storage.copyOf(tails, arcQuantity, capacity);
+		heads = storage.copyOf(heads, arcQuantity, capacity);
+		costs = storage.copyOf(costs, arcQuantity, capacity);
+	}
+
+	/**
+	 * Retourne la place occupée en mémoire par les tableaux de ces données.<br>
+	 * @return <b>bytes</b> le nombre d'octets occupés
+	 */
+	long byteSize() {
+		return 4L * (weights.length + tails.capacity() + heads.capacity() + costs.capacity());
+	}
+
+	/**
+	 * Ajoute à la suite tous les arcs de <b>other</b>.<br>
+	 * @param other les données contenant les arcs à ajouter
+	 */
+	void addArcs(GraphData other) {
+		int quantity = arcQuantity + other.arcQuantity;
+		if(quantity > tails.capacity()) {
+			resize(quantity);
+		}
+		GraphStorage.copy(other.tails, 0, tails, arcQuantity, other.arcQuantity);
+		GraphStorage.copy(other.heads, 0, heads, arcQuantity, other.arcQuantity);
+		GraphStorage.copy(other.costs, 0, costs, arcQuantity, other.arcQuantity);
+		arcQuantity = quantity;
+	}
+
+	/**
+	 * Crée le graphe compact correspondant à ces données, dont les tableaux sont alloués au même emplacement.<br>
+	 * @param name le nom du graphe
+	 * @return <b>graph</b> le graphe compact
+	 */
+	CompactGraph toCompactGraph(String name) {
+		return new CompactGraph(name, weights, tails, heads, costs, arcQuantity, storage);
+	}
+
+	/**
+	 * Instancie le graphe correspondant à ces données, par un {@link GraphBuilder}.<br>
+	 * @param name le nom du graphe
+	 * @return <b>graph</b> le graphe
+	 */
+	Graph toGraph(String name) {
+		GraphBuilder builder = new GraphBuilder(weights, arcQuantity);
+		for(int i=0; i<arcQuantity; i++) {
+			builder.addArc(tails.get(i), heads.get(i), costs.get(i));
+		}
+		return builder.build(name);
+	}
+
+}
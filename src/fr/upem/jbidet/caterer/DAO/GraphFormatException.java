@@ -0,0 +1,134 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.IOException;
+
+/**
+ * Signale une erreur dans un fichier de graphe, avec la ligne et la colonne où elle a été détectée.<br>
+ * Le type de l'erreur ({@link Violation}) distingue les erreurs de syntaxe des graphes syntaxiquement corrects mais invalides.<br>
+ * Pour un fichier binaire ({@link BinaryPattern}) l'erreur n'est pas positionnée.<br>
+ * @author Jeremy
+ * @version 1.0
+ * @see FilePattern
+ */
+public class GraphFormatException extends IOException {
+
+	private static final long serialVersionUID = 2871653024318457126L;
+
+	/**
+	 * Type d'erreur détectée pendant la lecture d'un graphe.<br>
+	 */
+	public static enum Violation {
+		/** le contenu ne respecte pas la grammaire du fichier */
+		SYNTAX,
+		/** le nombre de poids ne correspond pas au nombre de sommets déclaré */
+		VERTEX_QUANTITY,
+		/** la somme des poids des sommets n'est pas nulle : l'offre n'est pas égale à la demande */
+		UNBALANCED,
+		/** un arc référence un sommet qui n'existe pas */
+		VERTEX_INDEX,
+		/** un arc relie un sommet à lui-même */
+		SELF_LOOP,
+		/** deux arcs relient les mêmes sommets dans le même sens */
+		DUPLICATE_ARC,
+		/** le graphe contient plus d'arcs que la limite autorisée */
+		ARC_QUANTITY
+	};
+
+	private final Violation violation;
+	private final String reason;
+	private final int line;
+	private final int column;
+
+	/**
+	 * Crée une erreur de syntaxe non positionnée, pour les fichiers qui ne sont pas découpés en lignes.<br>
+	 * La ligne et la colonne valent alors -1.<br>
+	 * @param message la description de l'erreur
+	 */
+	public GraphFormatException(String message) {
+		this(Violation.SYNTAX, message);
+	}
+
+	/**
+	 * Crée une erreur non positionnée.<br>
+	 * La ligne et la colonne valent alors -1.<br>
+	 * @param violation le type de l'erreur
+	 * @param message la description de l'erreur
+	 */
+	public GraphFormatException(Violation violation, String message) {
+		super(message);
+		this.violation = violation;
+		this.reason = message;
+		this.line = -1;
+		this.column = -1;
+	}
+
+	/**
+	 * Crée une erreur de syntaxe positionnée dans le fichier.<br>
+	 * @param message la description de l'erreur
+	 * @param line la ligne de l'erreur (à partir de 1)
+	 * @param column la colonne de l'erreur (à partir de 1)
+	 */
+	public GraphFormatException(String message, int line, int column) {
+		this(Violation.SYNTAX, message, line, column);
+	}
+
+	/**
+	 * Crée une erreur positionnée dans le fichier.<br>
+	 * @param violation le type de l'erreur
+	 * @param message la description de l'erreur
+	 * @param line la ligne de l'erreur (à partir de 1)
+	 * @param column la colonne de l'erreur (à partir de 1)
+	 */
+	public GraphFormatException(Violation violation, String message, int line, int column) {
+		super("line " + line + ", column " + column + " : " + message);
+		this.violation = violation;
+		this.reason = message;
+		this.line = line;
+		this.column = column;
+	}
+
+	/**
+	 * Retourne le type de l'erreur.<br>
+	 * @return <b>violation</b> le type de l'erreur
+	 */
+	public Violation getViolation() {
+		return violation;
+	}
+
+	/**
+	 * Retourne la ligne où l'erreur a été détectée.<br>
+	 * @return <b>line</b> la ligne de l'erreur
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Retourne la colonne où l'erreur a été détectée.<br>
+	 * @return <b>column</b> la colonne de l'erreur
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Retourne la même erreur positionnée à la ligne et à la colonne données.<br>
+	 * @param line la ligne de l'erreur
+	 * @param column la colonne de l'erreur
+	 * @return <b>exception</b> l'erreur positionnée
+	 */
+	GraphFormatException at(int line, int column) {
+		return new GraphFormatException(violation, reason, line, column);
+	}
+
+	/**
+	 * Retourne la même erreur décalée de <b>lines</b> lignes.<br>
+	 * Utilisé lorsque le fichier est lu par morceaux, chaque morceau numérotant ses lignes à partir de 1.<br>
+	 * @param lines le nombre de lignes précédant le morceau
+	 * @return <b>exception</b> l'erreur positionnée dans le fichier complet
+	 */
+	GraphFormatException shift(int lines) {
+		return line < 0 ? this : at(line + lines, column);
+	}
+
+}
@@ -1,119 +1,468 @@
-package fr.upem.jbidet.caterer.DAO;
-
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import javax.annotation.processing.FilerException;
-
-import fr.upem.jbidet.caterer.Core.Arc;
-import fr.upem.jbidet.caterer.Core.Graph;
-import fr.upem.jbidet.caterer.Core.Vertex;
-
-/**
- * Reprsenter le parseur permettant d'extraire les donnes du fichier contenant le graphe.<br>
- * Implmente l'interface {@link FilePattern} qui dfinit les proprits du parseur.<br>
- * @author Jeremy
- * @version 1.0
- */
-public class GraphParser implements FilePattern {
-		
-	private int[] parseVertex(String vertexList, int vertexQuantity) throws FilerException {
-		Pattern p = Pattern.compile(vertexRegExp);
-		Matcher m = p.matcher(vertexList);
-		int[] vertex = new int[vertexQuantity];
-		int i = 0;
-		while(m.find()) {
-			vertex[i] = Integer.parseInt(m.group("vertexWeight"));
-			i++;
-		}
-		if(i != vertexQuantity) {
-			throw new FilerException("File is corrupted : vertex quantity is not equal to vertex weight quantity !");
-		}
-		return vertex;
-	}
-	
-	private List<int[]> parseArc(String arcList) {
-		Pattern p = Pattern.compile(arcRegExp);
-		Matcher m = p.matcher(arcList);
-		List<int[]> arc = new ArrayList<int[]>();;
-		while(m.find()) {
-			int[] tmp = new int[3];
-			tmp[0] = Integer.parseInt(m.group("vertexA"));
-			tmp[1] = Integer.parseInt(m.group("vertexB"));
-			tmp[2] = Integer.parseInt(m.group("cost"));
-			arc.add(tmp);
-		}
-		return arc;
-	}
-	
-	@Override
-	public Graph parseFile(File file) {
-		
-		try {
-			BufferedReader br = new BufferedReader(new FileReader(file));
-			StringBuilder sb = new StringBuilder();;
-			for (String line; (line = br.readLine()) != null; ) {
-				sb.append(line).append("\n");
-			}
-			br.close();
-			String content = sb.toString();
-			
-			Pattern p = Pattern.compile(graphRegExp);
-			Matcher m = p.matcher(content);
-			
-			if( !m.matches() ) {
-				return null;
-			}
-			
-			Graph graph = new Graph(file.getName());
-			/* parse le nombre de sommets */
-			int vertexQuantity = Integer.parseInt(m.group("vertexQuantity"));
-			/* instancie les sommets avec leur poids */
-			int[] vertex = parseVertex(m.group("vertexList"), vertexQuantity);
-			List<Vertex> vertexs = new ArrayList<Vertex>(vertexQuantity);
-			for(int v : vertex) {
-				vertexs.add(new Vertex(v));
-			}
-			/* instancie les arcs avec leurs sommets et cot */
-			List<int[]> arc = parseArc(m.group("arcList"));
-			List<Arc> arcs = new ArrayList<Arc>();
-			for(int[] a : arc) {
-				arcs.add(new Arc(vertexs.get(a[0]), vertexs.get(a[1]), a[2]));
-			}
-			/* dfinie les arcs des sommets */
-			for(Vertex v : vertexs) {
-				v.addArcs(subList(arcs, v));
-			}
-			graph.setVertexQuantity(vertexQuantity);
-			graph.setVertex(vertexs);
-			graph.setArcs(arcs);
-			
-			return graph;
-			
-		} catch(FileNotFoundException e) {
-			e.printStackTrace();
-		} catch(IOException e) {
-			e.printStackTrace();
-		}
-		
-		return null;
-	}
-	
-	private List<Arc> subList(List<Arc> arcs, Vertex vertex) {
-		List<Arc> arc = new ArrayList<Arc>();
-		for(Arc a : arcs) {
-			if( a.getVertexA().equals(vertex) || a.getVertexB().equals(vertex) ) {
-				arc.add(a);
-			}
-		}
-		return arc;
-	}
-
-}
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import fr.upem.jbidet.caterer.Core.CompactGraph;
+import fr.upem.jbidet.caterer.Core.Graph;
+import fr.upem.jbidet.caterer.Core.GraphStorage;
+import fr.upem.jbidet.caterer.DAO.GraphFormatException.Violation;
+
+/**
+ * Représenter le parseur permettant d'extraire les données du fichier contenant le graphe.<br>
+ * Implémente l'interface {@link FilePattern} qui définit les propriétés du parseur.<br>
+ * Le fichier est lu en une seule passe par un {@link GraphTokenizer} qui reconnaît la grammaire
+ *  décrite par les expressions régulières de {@link FilePattern}.<br>
+ * Lorsque le parallélisme est supérieur à 1, le fichier est projeté en mémoire et la liste des arcs
+ *  est découpée en morceaux lus en parallèle.<br>
+ * Les fichiers compressés au format gzip sont reconnus et décompressés à la volée par un {@link GzipPipeInputStream}.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public class GraphParser implements FilePattern {
+
+	/* taille maximale d'une projection mémoire */
+	private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+	/* taille minimale d'un morceau : en dessous, le découpage coûte plus qu'il ne rapporte */
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+	/* nombre moyen d'octets par ligne d'arc, pour pré-allouer les tableaux de chaque morceau */
+	private static final int BYTES_PER_ARC = 12;
+	/* nombre de poids alloués avant d'en avoir lu, le tableau grandit ensuite avec le flux */
+	private static final int INITIAL_VERTEX_CAPACITY = 1024;
+
+	private int parallelism;
+	private int maxArcs;
+	private boolean duplicateCheck;
+	private GraphStorage storage;
+
+	/**
+	 * Crée un parseur lisant les fichiers séquentiellement.<br>
+	 */
+	public GraphParser() {
+		this(1);
+	}
+
+	/**
+	 * Crée un parseur lisant la liste des arcs sur <b>parallelism</b> threads.<br>
+	 * @param parallelism le nombre de threads de lecture
+	 */
+	public GraphParser(int parallelism) {
+		setParallelism(parallelism);
+		this.maxArcs = GraphData.MAX_ARCS;
+		this.duplicateCheck = true;
+		this.storage = GraphStorage.HEAP;
+	}
+
+	/**
+	 * Retourne le nombre de threads utilisés pour lire la liste des arcs.<br>
+	 * @return <b>parallelism</b> le nombre de threads
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Définie le nombre de threads utilisés pour lire la liste des arcs.<br>
+	 * Avec 1 thread le fichier est lu séquentiellement, au-delà il est projeté en mémoire et lu par morceaux.<br>
+	 * @param parallelism le nombre de threads
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive : " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Retourne le nombre maximal d'arcs accepté dans un fichier.<br>
+	 * @return <b>maxArcs</b> le nombre maximal d'arcs
+	 */
+	public int getMaxArcs() {
+		return maxArcs;
+	}
+
+	/**
+	 * Définie le nombre maximal d'arcs accepté dans un fichier : la lecture s'arrête dès qu'il est dépassé.<br>
+	 * La limite ne peut pas dépasser <b>Integer.MAX_VALUE / 4</b>, la taille maximale des tableaux des arcs,
+	 *  qui est aussi la limite par défaut ; une limite plus grande y est ramenée.<br>
+	 * @param maxArcs le nombre maximal d'arcs
+	 */
+	public void setMaxArcs(int maxArcs) {
+		if(maxArcs < 1) {
+			throw new IllegalArgumentException("max arcs must be positive : " + maxArcs);
+		}
+		this.maxArcs = Math.min(maxArcs, GraphData.MAX_ARCS);
+	}
+
+	/**
+	 * Indique si les arcs en double (mêmes sommets dans le même sens) sont recherchés pendant la lecture.<br>
+	 * @return <b>true</b> si les arcs en double sont recherchés
+	 */
+	public boolean isDuplicateCheck() {
+		return duplicateCheck;
+	}
+
+	/**
+	 * Active ou désactive la recherche des arcs en double pendant la lecture.<br>
+	 * La recherche coûte de 16 à 32 octets par arc pendant la lecture.<br>
+	 * @param duplicateCheck <b>true</b> pour rechercher les arcs en double
+	 */
+	public void setDuplicateCheck(boolean duplicateCheck) {
+		this.duplicateCheck = duplicateCheck;
+	}
+
+	/**
+	 * Retourne l'emplacement des tableaux des arcs lus.<br>
+	 * @return <b>storage</b> l'emplacement des tableaux
+	 */
+	public GraphStorage getStorage() {
+		return storage;
+	}
+
+	/**
+	 * Définie l'emplacement des tableaux des arcs lus, et des graphes compacts retournés par {@link #parseCompactFile(File)}.<br>
+	 * Hors du tas, un graphe de plusieurs dizaines de millions d'arcs peut être lu sans agrandir le tas ;
+	 *  la recherche des arcs en double reste dans le tas et peut alors être désactivée.<br>
+	 * @param storage l'emplacement des tableaux
+	 */
+	public void setStorage(GraphStorage storage) {
+		this.storage = storage;
+	}
+
+	private int[] parseVertex(GraphTokenizer tokenizer, int vertexQuantity, GraphValidator validator) throws IOException {
+		if(!tokenizer.nextLine()) {
+			throw tokenizer.error("vertex weight list expected");
+		}
+		/* le tableau grandit avec les poids lus : un nombre de sommets annoncé mais absent du flux n'est jamais alloué */
+		int[] vertex = new int[Math.min(vertexQuantity, INITIAL_VERTEX_CAPACITY)];
+		int i = 0;
+		while(tokenizer.hasNextInt()) {
+			if(i == vertexQuantity) {
+				throw tokenizer.error(Violation.VERTEX_QUANTITY, "vertex quantity is not equal to vertex weight quantity !");
+			}
+			if(i == vertex.length) {
+				vertex = Arrays.copyOf(vertex, (int)Math.min((long)vertex.length << 1, vertexQuantity));
+			}
+			vertex[i] = tokenizer.nextInt();
+			i++;
+		}
+		if(i != vertexQuantity) {
+			throw tokenizer.error(Violation.VERTEX_QUANTITY, "vertex quantity is not equal to vertex weight quantity !");
+		}
+		try {
+			validator.checkWeights(vertex);
+		} catch(GraphFormatException e) {
+			throw e.at(tokenizer.getLine(), 1);
+		}
+		tokenizer.endLine();
+		return vertex;
+	}
+
+	private void parseArc(GraphTokenizer tokenizer, GraphData data, GraphValidator validator) throws IOException {
+		while(tokenizer.nextLine()) {
+			int column = tokenizer.getColumn();
+			int vertexA = tokenizer.nextNatural();
+			int vertexB = tokenizer.nextNatural();
+			int cost = tokenizer.nextInt();
+			try {
+				validator.checkArc(vertexA, vertexB);
+				data.addArc(vertexA, vertexB, cost);
+			} catch(GraphFormatException e) {
+				throw e.at(tokenizer.getLine(), column);
+			}
+			tokenizer.endLine();
+		}
+	}
+
+	/* parse l'en-tête du fichier (nombre de sommets et poids), le tokenizer est ensuite placé au début de la liste des arcs ;
+	 *  un poids occupe au moins deux octets (un chiffre et un séparateur), le nombre de sommets est borné par la taille du fichier */
+	private GraphData parseHeader(GraphTokenizer tokenizer, long size, int arcCapacity, GraphStorage storage) throws IOException {
+		/* parse le nombre de sommets */
+		if(!tokenizer.nextLine()) {
+			throw tokenizer.error("vertex quantity expected");
+		}
+		int vertexQuantity = tokenizer.nextNatural();
+		if(vertexQuantity > size - size / 2) {
+			throw tokenizer.error(Violation.VERTEX_QUANTITY, "vertex quantity " + vertexQuantity + " does not fit in a file of " + size + " bytes !");
+		}
+		tokenizer.endLine();
+		/* parse les poids des sommets, l'offre doit être égale à la demande */
+		int[] weights = parseVertex(tokenizer, vertexQuantity, newValidator(vertexQuantity, false));
+		return new GraphData(weights, arcCapacity, storage);
+	}
+
+	private GraphValidator newValidator(int vertexQuantity, boolean duplicates) {
+		return new GraphValidator(vertexQuantity, maxArcs, duplicates && duplicateCheck);
+	}
+
+	/**
+	 * Lit et vérifie les données d'un graphe depuis un flux.<br>
+	 * @param in le flux contenant le graphe
+	 * @return <b>data</b> les données brutes du graphe
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le contenu est corrompu
+	 */
+	GraphData parse(InputStream in) throws IOException {
+		return parse(in, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Lit et vérifie les données d'un graphe depuis un flux de taille connue.<br>
+	 * @param in le flux contenant le graphe
+	 * @param size le nombre d'octets du flux, ou <b>Long.MAX_VALUE</b> s'il n'est pas connu
+	 * @return <b>data</b> les données brutes du graphe
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le contenu est corrompu
+	 */
+	GraphData parse(InputStream in, long size) throws IOException {
+		GraphTokenizer tokenizer = new GraphTokenizer(in);
+		GraphData data = parseHeader(tokenizer, size, 16, storage);
+		/* parse les arcs avec leurs sommets et coût */
+		parseArc(tokenizer, data, newValidator(data.weights.length, true));
+		if(data.arcQuantity == 0) {
+			throw tokenizer.error("at least one arc expected");
+		}
+		return data;
+	}
+
+	/**
+	 * Lit les données d'un graphe en projetant le fichier en mémoire.<br>
+	 * L'en-tête est lu séquentiellement, puis la liste des arcs est découpée sur des fins de ligne
+	 *  en morceaux lus en parallèle dans des tableaux d'entiers, qui sont ensuite concaténés dans l'ordre du fichier.<br>
+	 * Chaque morceau est vérifié dès qu'il est lu, dans l'ordre du fichier : le nombre d'arcs cumulé et les arcs en double
+	 *  y sont rejetés avec leur ligne, comme en lecture séquentielle, sans attendre les morceaux suivants.<br>
+	 * @param file le fichier contenant le graphe
+	 * @return <b>data</b> les données brutes du graphe
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le contenu est corrompu
+	 */
+	GraphData parseMapped(File file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			/* l'en-tête est lu depuis le début du fichier, les octets lus en avance par le tokenizer sont ignorés */
+			GraphTokenizer tokenizer = new GraphTokenizer(Channels.newInputStream(channel));
+			GraphData header = parseHeader(tokenizer, size, 1, GraphStorage.HEAP);
+			long start = tokenizer.getOffset();
+			int headerLines = tokenizer.getLine() - 1;
+
+			/* découpe la liste des arcs sur des débuts de ligne */
+			int chunks = (int)Math.max(Math.min(parallelism, (size - start) / MIN_CHUNK_SIZE), 1);
+			chunks = (int)Math.max(chunks, (size - start + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+			long[] bounds = new long[chunks + 1];
+			bounds[0] = start;
+			bounds[chunks] = size;
+			for(int i=1; i<chunks; i++) {
+				bounds[i] = nextLineStart(channel, Math.max(start + (size - start) * i / chunks, bounds[i-1]), size);
+			}
+
+			/* lit chaque morceau dans ses propres tableaux */
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks));
+			try {
+				List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>(chunks);
+				for(int i=0; i<chunks; i++) {
+					futures.add(executor.submit(new ChunkTask(channel, bounds[i], bounds[i+1], header.weights.length)));
+				}
+				/* vérifie les morceaux dans l'ordre du fichier dès qu'ils sont lus : le nombre d'arcs cumulé, et les arcs en double,
+				 *  qui peuvent être dans deux morceaux différents ; les numéros de ligne sont relatifs à chaque morceau */
+				GraphValidator validator = newValidator(header.weights.length, true);
+				int total = 0;
+				int lines = headerLines;
+				List<Chunk> results = new ArrayList<Chunk>(chunks);
+				for(int i=0; i<chunks; i++) {
+					Chunk chunk = futures.get(i).get();
+					/* les arcs lus avant une erreur du morceau sont vérifiés d'abord, comme en lecture séquentielle */
+					int quantity = chunk.data.arcQuantity;
+					if(duplicateCheck) {
+						for(int a=0; a<quantity; a++) {
+							try {
+								validator.checkArc(chunk.data.tails.get(a), chunk.data.heads.get(a));
+							} catch(GraphFormatException e) {
+								throw locate(e, channel, bounds[i], bounds[i+1], a).shift(lines);
+							}
+						}
+					} else if(quantity > maxArcs - total) {
+						GraphFormatException e = new GraphFormatException(Violation.ARC_QUANTITY, "more than " + maxArcs + " arcs !");
+						throw locate(e, channel, bounds[i], bounds[i+1], maxArcs - total).shift(lines);
+					}
+					if(chunk.error != null) {
+						throw chunk.error.shift(lines);
+					}
+					total += quantity;
+					lines += chunk.lines;
+					results.add(chunk);
+				}
+				if(total == 0) {
+					throw new GraphFormatException("at least one arc expected", lines + 1, 1);
+				}
+				GraphData data = new GraphData(header.weights, total, storage);
+				for(Chunk chunk : results) {
+					data.addArcs(chunk.data);
+				}
+				return data;
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} catch(ExecutionException e) {
+				if(e.getCause() instanceof IOException) {
+					throw (IOException)e.getCause();
+				}
+				throw new IOException(e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/* place une erreur sur la ligne de l'arc <index> d'un morceau, relue dans le fichier ; la ligne est relative au morceau */
+	private static GraphFormatException locate(GraphFormatException error, FileChannel channel, long start, long end, int index) throws IOException {
+		GraphTokenizer tokenizer = new GraphTokenizer(new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
+		for(int i=0; tokenizer.nextLine(); i++) {
+			if(i == index) {
+				return error.at(tokenizer.getLine(), tokenizer.getColumn());
+			}
+			tokenizer.nextNatural();
+			tokenizer.nextNatural();
+			tokenizer.nextInt();
+			tokenizer.endLine();
+		}
+		return error;
+	}
+
+	/* retourne la position du début de la ligne suivant <position>, ou <end> */
+	private static long nextLineStart(FileChannel channel, long position, long end) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		while(position < end) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if(read < 0) {
+				break;
+			}
+			for(int i=0; i<read; i++) {
+				if(buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return end;
+	}
+
+	/**
+	 * Résultat de la lecture d'un morceau de la liste des arcs.<br>
+	 */
+	private static class Chunk {
+		final GraphData data;
+		final int lines;
+		final GraphFormatException error;
+		Chunk(GraphData data, int lines, GraphFormatException error) { this.data = data; this.lines = lines; this.error = error; }
+	}
+
+	/**
+	 * Lit les arcs compris entre deux positions du fichier projeté en mémoire.<br>
+	 */
+	private class ChunkTask implements Callable<Chunk> {
+
+		private final FileChannel channel;
+		private final long start;
+		private final long end;
+		private final int vertexQuantity;
+
+		ChunkTask(FileChannel channel, long start, long end, int vertexQuantity) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.vertexQuantity = vertexQuantity;
+		}
+
+		@Override
+		public Chunk call() throws IOException {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+			GraphData data = new GraphData(new int[0], (int)Math.min((end - start) / BYTES_PER_ARC + 1, GraphData.MAX_ARCS), storage);
+			GraphTokenizer tokenizer = new GraphTokenizer(new ByteBufferInputStream(buffer));
+			try {
+				parseArc(tokenizer, data, newValidator(vertexQuantity, false));
+			} catch(GraphFormatException e) {
+				return new Chunk(data, tokenizer.getLine() - 1, e);
+			}
+			return new Chunk(data, tokenizer.getLine() - 1, null);
+		}
+
+	}
+
+	/**
+	 * Flux lisant le contenu d'un {@link ByteBuffer}.<br>
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if(!buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+
+	}
+
+	/**
+	 * Lit les données d'un graphe depuis un fichier, compressé ou non, suivant le mode de lecture du parseur.<br>
+	 * @param file le fichier contenant le graphe
+	 * @return <b>data</b> les données brutes du graphe
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le contenu est corrompu
+	 */
+	GraphData parseData(File file) throws IOException {
+		/* un fichier compressé ne peut pas être projeté en mémoire : il est décompressé sur un autre thread pendant la lecture */
+		if(GzipPipeInputStream.isCompressed(file)) {
+			try(InputStream in = new GzipPipeInputStream(file)) {
+				return parse(in);
+			}
+		}
+		if(parallelism > 1) {
+			return parseMapped(file);
+		}
+		try(InputStream in = new FileInputStream(file)) {
+			return parse(in, file.length());
+		}
+	}
+
+	@Override
+	public Graph parseFile(File file) throws IOException {
+		return parseData(file).toGraph(file.getName());
+	}
+
+	/**
+	 * Lit un graphe sous forme compacte, dont les tableaux sont rangés à l'emplacement du parseur ({@link #setStorage(GraphStorage)}),
+	 *  sans instancier de {@link fr.upem.jbidet.caterer.Core.Vertex} ni d'{@link fr.upem.jbidet.caterer.Core.Arc}.<br>
+	 * @param file le fichier contenant le graphe
+	 * @return <b>graph</b> le graphe compact
+	 * @throws IOException erreur de lecture, ou {@link GraphFormatException} si le contenu est corrompu
+	 */
+	public CompactGraph parseCompactFile(File file) throws IOException {
+		return parseData(file).toCompactGraph(file.getName());
+	}
+
+}
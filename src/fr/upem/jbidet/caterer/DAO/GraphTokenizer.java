@@ -0,0 +1,241 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import fr.upem.jbidet.caterer.DAO.GraphFormatException.Violation;
+
+/**
+ * Découpe en une seule passe un fichier de graphe (voir {@link FilePattern}) en entiers, ligne par ligne.<br>
+ * Les lignes vides et les commentaires (de <b>//</b> à la fin de la ligne) sont ignorés.<br>
+ * Les octets sont lus directement depuis le flux, sans créer de chaîne intermédiaire,
+ * et la position courante (ligne, colonne) est conservée pour localiser les erreurs.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+class GraphTokenizer {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int EOF = -1;
+
+	private final InputStream in;
+	private final byte[] buffer;
+	private int position;
+	private int limit;
+	private long offset; // nombre d'octets consommés avant buffer[0]
+	private long lineStart; // position absolue du début de la ligne courante
+	private int line;
+
+	/**
+	 * Crée un tokenizer lisant le flux passé en paramètre.<br>
+	 * Le flux n'est pas fermé par le tokenizer.<br>
+	 * @param in le flux contenant le graphe
+	 */
+	GraphTokenizer(InputStream in) {
+		this.in = in;
+		this.buffer = new byte[BUFFER_SIZE];
+		this.line = 1;
+	}
+
+	/**
+	 * Retourne la ligne courante (à partir de 1).<br>
+	 * @return <b>line</b> la ligne courante
+	 */
+	int getLine() {
+		return line;
+	}
+
+	/**
+	 * Retourne la colonne courante (à partir de 1).<br>
+	 * @return <b>column</b> la colonne courante
+	 */
+	int getColumn() {
+		return (int)(offset + position - lineStart) + 1;
+	}
+
+	/**
+	 * Retourne la position courante en octets depuis le début du flux.<br>
+	 * @return <b>offset</b> le nombre d'octets consommés
+	 */
+	long getOffset() {
+		return offset + position;
+	}
+
+	/**
+	 * Avance jusqu'au premier élément de la prochaine ligne significative,
+	 *  en ignorant les lignes vides et les commentaires.<br>
+	 * Doit être appelée en début de ligne, c'est-à-dire après {@link #endLine()}.<br>
+	 * @return <b>true</b> si une ligne significative a été trouvée, <b>false</b> en fin de fichier
+	 * @throws IOException erreur de lecture ou caractère inattendu
+	 */
+	boolean nextLine() throws IOException {
+		for(;;) {
+			skipBlanks();
+			int c = peek();
+			if(c == EOF) {
+				return false;
+			}
+			if(c == '/') {
+				skipComment();
+				continue;
+			}
+			if(c != '\n') {
+				return true;
+			}
+			newLine();
+		}
+	}
+
+	/**
+	 * Termine la ligne courante : seuls des blancs ou un commentaire peuvent suivre le dernier entier lu.<br>
+	 * @throws IOException erreur de lecture ou caractère inattendu
+	 */
+	void endLine() throws IOException {
+		skipBlanks();
+		int c = peek();
+		if(c == '/') {
+			skipComment();
+			c = peek();
+		}
+		if(c == EOF) {
+			return;
+		}
+		if(c != '\n') {
+			throw error("unexpected character '" + (char)c + "'");
+		}
+		newLine();
+	}
+
+	/**
+	 * Indique si un entier suit sur la ligne courante.<br>
+	 * @return <b>true</b> si un entier suit, <b>false</b> en fin de ligne
+	 * @throws IOException erreur de lecture
+	 */
+	boolean hasNextInt() throws IOException {
+		skipBlanks();
+		int c = peek();
+		return c == '+' || c == '-' || (c >= '0' && c <= '9');
+	}
+
+	/**
+	 * Lit un entier signé sur la ligne courante.<br>
+	 * @return <b>value</b> l'entier lu
+	 * @throws IOException erreur de lecture ou entier invalide
+	 */
+	int nextInt() throws IOException {
+		return readInt(true);
+	}
+
+	/**
+	 * Lit un entier positif ou nul (signe <b>-</b> interdit) sur la ligne courante.<br>
+	 * @return <b>value</b> l'entier lu
+	 * @throws IOException erreur de lecture ou entier invalide
+	 */
+	int nextNatural() throws IOException {
+		return readInt(false);
+	}
+
+	/**
+	 * Crée une erreur de format à la position courante.<br>
+	 * @param message la description de l'erreur
+	 * @return <b>exception</b> l'erreur positionnée
+	 */
+	GraphFormatException error(String message) {
+		return error(Violation.SYNTAX, message);
+	}
+
+	/**
+	 * Crée une erreur du type donné à la position courante.<br>
+	 * @param violation le type de l'erreur
+	 * @param message la description de l'erreur
+	 * @return <b>exception</b> l'erreur positionnée
+	 */
+	GraphFormatException error(Violation violation, String message) {
+		return new GraphFormatException(violation, message, line, getColumn());
+	}
+
+	private int readInt(boolean signed) throws IOException {
+		skipBlanks();
+		int column = getColumn();
+		int c = peek();
+		boolean negative = false;
+		if(c == '+' || (signed && c == '-')) {
+			negative = c == '-';
+			position++;
+			c = peek();
+		}
+		if(c < '0' || c > '9') {
+			throw new GraphFormatException(signed ? "integer expected" : "non-negative integer expected", line, column);
+		}
+		long value = 0;
+		do {
+			value = value * 10 + (c - '0');
+			if(value > Integer.MAX_VALUE + 1L) {
+				throw new GraphFormatException("integer overflow", line, column);
+			}
+			position++;
+			c = peek();
+		} while(c >= '0' && c <= '9');
+		if(!isSeparator(c)) {
+			throw error("unexpected character '" + (char)c + "'");
+		}
+		if(negative) {
+			value = -value;
+		}
+		if(value > Integer.MAX_VALUE) {
+			throw new GraphFormatException("integer overflow", line, column);
+		}
+		return (int)value;
+	}
+
+	private static boolean isSeparator(int c) {
+		return c == EOF || c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == '\n' || c == '/';
+	}
+
+	private void skipBlanks() throws IOException {
+		for(int c = peek(); c == ' ' || c == '\t' || c == '\r' || c == '\f'; c = peek()) {
+			position++;
+		}
+	}
+
+	/* saute un commentaire jusqu'à la fin de la ligne, sans consommer le retour à la ligne */
+	private void skipComment() throws IOException {
+		if(!ensure(2) || buffer[position + 1] != '/') {
+			throw error("unexpected character '/'");
+		}
+		for(int c = peek(); c != '\n' && c != EOF; c = peek()) {
+			position++;
+		}
+	}
+
+	private void newLine() {
+		position++;
+		line++;
+		lineStart = offset + position;
+	}
+
+	private int peek() throws IOException {
+		if(position < limit || ensure(1)) {
+			return buffer[position] & 0xFF;
+		}
+		return EOF;
+	}
+
+	/* garantit que n octets sont disponibles dans le tampon, en décalant les octets non lus au début */
+	private boolean ensure(int n) throws IOException {
+		while(limit - position < n) {
+			int remaining = limit - position;
+			System.arraycopy(buffer, position, buffer, 0, remaining);
+			offset += position;
+			position = 0;
+			limit = remaining;
+			int read = in.read(buffer, limit, buffer.length - limit);
+			if(read < 0) {
+				return false;
+			}
+			limit += read;
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,124 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.util.Arrays;
+
+import fr.upem.jbidet.caterer.DAO.GraphFormatException.Violation;
+
+/**
+ * Vérifie un graphe au fur et à mesure de sa lecture, pour rejeter un fichier invalide dès la première erreur :
+ * <ul>
+ *  <li>la somme des poids des sommets doit être nulle (offre égale à la demande) ;</li>
+ *  <li>les sommets de chaque arc doivent exister et être distincts ;</li>
+ *  <li>deux arcs ne peuvent pas relier les mêmes sommets dans le même sens ;</li>
+ *  <li>le nombre d'arcs ne peut pas dépasser une limite.</li>
+ * </ul>
+ * Les erreurs ne sont pas positionnées, c'est au parseur de leur donner une ligne et une colonne.<br>
+ * Un validateur ne sert qu'à la lecture d'un seul graphe.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+final class GraphValidator {
+
+	private static final long EMPTY = -1L;
+
+	private final int vertexQuantity;
+	private final int maxArcs;
+	private final boolean duplicates;
+	private int arcQuantity;
+	/* table de hachage à adressage ouvert des couples (sommet A, sommet B) déjà lus */
+	private long[] table;
+	private int size;
+
+	/**
+	 * Crée un validateur pour un graphe à <b>vertexQuantity</b> sommets.<br>
+	 * @param vertexQuantity le nombre de sommets déclaré
+	 * @param maxArcs le nombre maximal d'arcs
+	 * @param duplicates <b>true</b> pour rechercher les arcs en double
+	 */
+	GraphValidator(int vertexQuantity, int maxArcs, boolean duplicates) {
+		this.vertexQuantity = vertexQuantity;
+		this.maxArcs = maxArcs;
+		this.duplicates = duplicates;
+		if(duplicates) {
+			this.table = new long[64];
+			Arrays.fill(table, EMPTY);
+		}
+	}
+
+	/**
+	 * Vérifie que l'offre est égale à la demande : la somme des poids des sommets doit être nulle.<br>
+	 * @param weights le vecteur des poids des sommets
+	 * @throws GraphFormatException la somme des poids n'est pas nulle
+	 */
+	void checkWeights(int[] weights) throws GraphFormatException {
+		long sum = 0;
+		for(int w : weights) {
+			sum += w;
+		}
+		if(sum != 0) {
+			throw new GraphFormatException(Violation.UNBALANCED, "supply and demand are not equal (sum of weights is " + sum + ") !");
+		}
+	}
+
+	/**
+	 * Vérifie un arc lu : ses sommets, qui ne peuvent pas être le même, son unicité et le nombre d'arcs.<br>
+	 * @param tail l'index du sommet A
+	 * @param head l'index du sommet B
+	 * @throws GraphFormatException l'arc n'est pas valide
+	 */
+	void checkArc(int tail, int head) throws GraphFormatException {
+		if(tail < 0 || head < 0 || tail >= vertexQuantity || head >= vertexQuantity) {
+			throw new GraphFormatException(Violation.VERTEX_INDEX,
+					"arc " + tail + " -> " + head + " references a vertex out of [0, " + vertexQuantity + "[ !");
+		}
+		if(tail == head) {
+			throw new GraphFormatException(Violation.SELF_LOOP, "arc " + tail + " -> " + head + " is a loop !");
+		}
+		if(++arcQuantity > maxArcs) {
+			throw new GraphFormatException(Violation.ARC_QUANTITY, "more than " + maxArcs + " arcs !");
+		}
+		if(duplicates && !add(((long)tail << 32) | head)) {
+			throw new GraphFormatException(Violation.DUPLICATE_ARC, "duplicate arc " + tail + " -> " + head + " !");
+		}
+	}
+
+	/* ajoute un couple à la table, retourne false s'il y était déjà */
+	private boolean add(long key) {
+		if(size >= table.length >> 1) {
+			rehash();
+		}
+		int mask = table.length - 1;
+		int i = hash(key) & mask;
+		while(table[i] != EMPTY) {
+			if(table[i] == key) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		table[i] = key;
+		size++;
+		return true;
+	}
+
+	private void rehash() {
+		long[] old = table;
+		table = new long[old.length << 1];
+		Arrays.fill(table, EMPTY);
+		int mask = table.length - 1;
+		for(long key : old) {
+			if(key != EMPTY) {
+				int i = hash(key) & mask;
+				while(table[i] != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				table[i] = key;
+			}
+		}
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+}
@@ -0,0 +1,171 @@
+package fr.upem.jbidet.caterer.DAO;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Flux décompressant un fichier gzip sur un thread dédié, pendant que le lecteur consomme les octets déjà décompressés.<br>
+ * Les deux threads s'échangent un nombre fixe de blocs au travers de deux files bornées :
+ *  les blocs remplis par le thread de décompression, et les blocs libérés par le lecteur.<br>
+ * La décompression et la lecture du graphe se recouvrent ainsi, sans fichier temporaire.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+final class GzipPipeInputStream extends InputStream {
+
+	private static final int BLOCK_SIZE = 64 * 1024;
+	private static final int BLOCK_QUANTITY = 8;
+	private static final Block END = new Block(0);
+
+	/**
+	 * Bloc d'octets décompressés.<br>
+	 */
+	private static class Block {
+		final byte[] data;
+		int length;
+		Block(int size) { this.data = new byte[size]; }
+	}
+
+	private final BlockingQueue<Block> full;
+	private final BlockingQueue<Block> free;
+	private final Thread inflater;
+	private volatile IOException error;
+	private Block current;
+	private int position;
+
+	/**
+	 * Ouvre un fichier gzip et démarre sa décompression.<br>
+	 * @param file le fichier compressé
+	 * @throws IOException erreur de lecture, ou le fichier n'est pas au format gzip
+	 */
+	GzipPipeInputStream(File file) throws IOException {
+		/* l'en-tête gzip est lu ici pour signaler immédiatement un fichier invalide */
+		FileInputStream in = new FileInputStream(file);
+		final InputStream gzip;
+		try {
+			gzip = new GZIPInputStream(in, BLOCK_SIZE);
+		} catch(IOException e) {
+			in.close(); // aucun flux ne possède encore le fichier
+			throw e;
+		}
+		this.full = new ArrayBlockingQueue<Block>(BLOCK_QUANTITY + 1);
+		this.free = new ArrayBlockingQueue<Block>(BLOCK_QUANTITY);
+		for(int i=0; i<BLOCK_QUANTITY; i++) {
+			free.add(new Block(BLOCK_SIZE));
+		}
+		this.inflater = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				inflate(gzip);
+			}
+		}, "gunzip " + file.getName());
+		inflater.setDaemon(true);
+		inflater.start();
+	}
+
+	/**
+	 * Indique si un fichier est compressé au format gzip, d'après ses deux premiers octets.<br>
+	 * @param file le fichier à tester
+	 * @return <b>true</b> si le fichier est compressé
+	 * @throws IOException erreur de lecture
+	 */
+	static boolean isCompressed(File file) throws IOException {
+		try(InputStream in = new FileInputStream(file)) {
+			int b0 = in.read();
+			int b1 = in.read();
+			return b0 == (GZIPInputStream.GZIP_MAGIC & 0xFF) && b1 == (GZIPInputStream.GZIP_MAGIC >>> 8);
+		}
+	}
+
+	/* exécuté par le thread de décompression : remplit les blocs libres jusqu'à la fin du fichier */
+	private void inflate(InputStream gzip) {
+		try(InputStream in = gzip) {
+			for(;;) {
+				Block block = free.take();
+				block.length = fill(in, block.data);
+				full.put(block);
+				if(block.length < block.data.length) {
+					break;
+				}
+			}
+		} catch(IOException e) {
+			error = e;
+		} catch(InterruptedException e) {
+			return; // flux fermé par le lecteur
+		}
+		/* la file des blocs remplis a une place de plus que le nombre de blocs : la fin du flux y entre toujours */
+		full.offer(END);
+	}
+
+	private static int fill(InputStream in, byte[] data) throws IOException {
+		int length = 0;
+		while(length < data.length) {
+			int read = in.read(data, length, data.length - length);
+			if(read < 0) {
+				break;
+			}
+			length += read;
+		}
+		return length;
+	}
+
+	/* passe au bloc suivant lorsque le bloc courant est consommé, retourne false en fin de flux */
+	private boolean next() throws IOException {
+		while(current == null || position == current.length) {
+			if(current == END) {
+				if(error != null) {
+					throw new IOException(error.getMessage(), error);
+				}
+				return false;
+			}
+			if(current != null) {
+				free.offer(current);
+			}
+			try {
+				current = full.take();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			position = 0;
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if(!next()) {
+			return -1;
+		}
+		return current.data[position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0) {
+			return 0;
+		}
+		if(!next()) {
+			return -1;
+		}
+		int n = Math.min(len, current.length - position);
+		System.arraycopy(current.data, position, b, off, n);
+		position += n;
+		return n;
+	}
+
+	/**
+	 * Arrête la décompression si elle n'est pas terminée.<br>
+	 */
+	@Override
+	public void close() {
+		inflater.interrupt();
+	}
+
+}
@@ -1,13 +1,19 @@
 package fr.upem.jbidet.caterer;
 
 import java.io.File;
+import java.io.IOException;
 
 import fr.upem.jbidet.caterer.Core.Graph;
-import fr.upem.jbidet.caterer.Core.Vertex;
+import fr.upem.jbidet.caterer.DAO.GraphBatchParser;
+import fr.upem.jbidet.caterer.DAO.GraphConsumer;
+import fr.upem.jbidet.caterer.DAO.GraphFormatException;
 import fr.upem.jbidet.caterer.DAO.GraphParser;
 import fr.upem.jbidet.caterer.Solver.Simplex;
+import fr.upem.jbidet.caterer.Solver.Solution;
 
 /**
+ * Résout chaque graphe passé en argument, fichier ou répertoire de fichiers.<br>
+ * Sans argument, résout le graphe du fichier <b>tests/testregex</b>.<br>
  * @author Melody
  * @author Jeremy
  * @version 1.0
@@ -15,31 +21,66 @@ import fr.upem.jbidet.caterer.Solver.Simplex;
 public class Main {
 
 	public static void main(String[] args) {
-		
-		/** CREATION ARBRE INITIAL **/
+
+		String[] paths = args.length == 0 ? new String[] { "tests/testregex" } : args;
 		GraphParser gp = new GraphParser();
-		File file = new File("tests/testregex");
-		Graph graph;
-		if((graph = gp.parseFile(file)) == null) {
-			System.out.println("! This file is corrupted !");
-			return;
-		}
-		/* vrifie que le nombre de sommets dclars correspond au nombre de sommets insrs dans le graphe */
-		int sum = 0;
-		for(Vertex v : graph.getVertex()) {
-			sum += v.getVertexWeight();
+		GraphBatchParser batch = new GraphBatchParser(gp, Runtime.getRuntime().availableProcessors());
+		/* les graphes d'un répertoire sont lus en parallèle et résolus dès qu'ils sont prêts */
+		GraphConsumer consumer = new GraphConsumer() {
+			@Override
+			public void accept(File file, Graph graph) {
+				solve(graph);
+			}
+			@Override
+			public void failed(File file, IOException e) {
+				report(file, e);
+			}
+		};
+
+		for(String path : paths) {
+			File file = new File(path);
+			if(file.isDirectory()) {
+				try {
+					batch.parseDirectory(file, "*", consumer);
+				} catch(IOException e) {
+					e.printStackTrace();
+				} catch(InterruptedException e) {
+					return;
+				}
+				continue;
+			}
+			/** CREATION ARBRE INITIAL **/
+			Graph graph;
+			/* le parseur vérifie aussi que l'offre est égale à la demande et que les arcs relient des sommets existants */
+			try {
+				graph = gp.parseFile(file);
+			} catch(IOException e) {
+				report(file, e);
+				continue;
+			}
+			/** FIN CREATION **/
+			solve(graph);
 		}
-		if(sum != 0) {
-			System.out.println("Erreur ! Offre et demande non gale !");
+
+	}
+
+	private static void solve(Graph graph) {
+		/** RESOLUTION PROBLEME **/
+		Solution solution = Simplex.solve(graph);
+		if(solution == null) {
+			System.out.println("! " + graph.getName() + " DOES NOT ACCEPT any solutions !");
 			return;
 		}
-		/** FIN CREATION **/
-		
-		/** RESOLUTION PROBLEME **/
-		Graph solution = Simplex.solve(graph);
-		System.out.println("Solution :\n" + solution);
+		System.out.println(solution);
 		/** FIN RESOLUTION **/
-		
+	}
+
+	private static void report(File file, IOException e) {
+		if(e instanceof GraphFormatException) {
+			System.out.println("! " + file.getName() + " is corrupted ! " + e.getMessage());
+		} else {
+			e.printStackTrace();
+		}
 	}
 
 }
@@ -0,0 +1,58 @@
+package fr.upem.jbidet.caterer.Solver;
+
+/**
+ * Représente la base finale d'une résolution : les arcs de l'arbre couvrant sur lequel le {@link Simplex} s'est arrêté.<br>
+ * Une base sert de point de départ à la résolution d'un graphe de même topologie (mêmes sommets, mêmes arcs, dans le même ordre)
+ *  dont les coûts des arcs ou les poids des sommets ont changé : voir {@link Simplex#resolve(fr.upem.jbidet.caterer.Core.Graph, Solution)}.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public final class Basis {
+
+	private final int vertexQuantity;
+	private final int arcQuantity;
+	/** les index des arcs de l'arbre, les arcs artificiels étant numérotés à la suite des arcs du graphe */
+	private final int[] arcs;
+
+	/**
+	 * Crée une base.<br>
+	 * @param vertexQuantity le nombre de sommets du graphe résolu
+	 * @param arcQuantity le nombre d'arcs du graphe résolu
+	 * @param arcs les index des arcs de l'arbre
+	 */
+	Basis(int vertexQuantity, int arcQuantity, int[] arcs) {
+		this.vertexQuantity = vertexQuantity;
+		this.arcQuantity = arcQuantity;
+		this.arcs = arcs;
+	}
+
+	/**
+	 * Retourne le nombre de sommets du graphe résolu.<br>
+	 * @return <b>size</b> le nombre de sommets
+	 */
+	public int getVertexQuantity() {
+		return vertexQuantity;
+	}
+
+	/**
+	 * Retourne le nombre d'arcs du graphe résolu.<br>
+	 * @return <b>size</b> le nombre d'arcs
+	 */
+	public int getArcQuantity() {
+		return arcQuantity;
+	}
+
+	/**
+	 * Retourne les index des arcs de l'arbre.<br>
+	 * @return <b>arcs</b> les arcs de l'arbre, à ne pas modifier
+	 */
+	int[] getArcs() {
+		return arcs;
+	}
+
+	@Override
+	public String toString() {
+		return "Basis : " + arcs.length + " tree arcs, " + vertexQuantity + " vertex, " + arcQuantity + " arcs";
+	}
+
+}
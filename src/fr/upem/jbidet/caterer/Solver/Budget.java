@@ -0,0 +1,86 @@
+package fr.upem.jbidet.caterer.Solver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Représente la limite d'une résolution : un nombre de pivots et une durée, comptés depuis le début de la résolution.<br>
+ * Lorsque l'une des deux est atteinte pendant la recherche de la solution optimale, le {@link Simplex} s'arrête
+ *  et retourne la solution réalisable courante, avec une estimation de son écart à l'optimum.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public final class Budget {
+
+	/** aucune limite : la résolution va jusqu'à la solution optimale */
+	public static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+	private final long maxPivots;
+	private final long timeout;
+
+	/**
+	 * Crée une limite de pivots et de durée.<br>
+	 * @param maxPivots le nombre de pivots au delà duquel la résolution s'arrête
+	 * @param timeout la durée au delà de laquelle la résolution s'arrête
+	 * @param unit l'unité de <b>timeout</b>
+	 */
+	public Budget(long maxPivots, long timeout, TimeUnit unit) {
+		if(maxPivots < 0 || timeout < 0) {
+			throw new IllegalArgumentException("budget must not be negative : " + maxPivots + " pivots, " + timeout + " " + unit);
+		}
+		this.maxPivots = maxPivots;
+		this.timeout = unit.toNanos(timeout);
+	}
+
+	/**
+	 * Retourne une limite du nombre de pivots seulement.<br>
+	 * @param maxPivots le nombre de pivots au delà duquel la résolution s'arrête
+	 * @return <b>budget</b> la limite
+	 */
+	public static Budget pivots(long maxPivots) {
+		return new Budget(maxPivots, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Retourne une limite de durée seulement.<br>
+	 * @param timeout la durée au delà de laquelle la résolution s'arrête
+	 * @param unit l'unité de <b>timeout</b>
+	 * @return <b>budget</b> la limite
+	 */
+	public static Budget time(long timeout, TimeUnit unit) {
+		return new Budget(Long.MAX_VALUE, timeout, unit);
+	}
+
+	/**
+	 * Retourne le nombre de pivots au delà duquel la résolution s'arrête.<br>
+	 * @return <b>pivots</b> le nombre de pivots
+	 */
+	public long getMaxPivots() {
+		return maxPivots;
+	}
+
+	/**
+	 * Retourne la durée au delà de laquelle la résolution s'arrête.<br>
+	 * @param unit l'unité de la durée
+	 * @return <b>timeout</b> la durée
+	 */
+	public long getTimeout(TimeUnit unit) {
+		return unit.convert(timeout, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Indique si une résolution a épuisé cette limite.<br>
+	 * @param pivots le nombre de pivots faits
+	 * @param start le début de la résolution, lu par {@link System#nanoTime()}
+	 * @return <b>true</b> si la résolution doit s'arrêter
+	 */
+	boolean isExhausted(long pivots, long start) {
+		return pivots >= maxPivots || (timeout != Long.MAX_VALUE && System.nanoTime() - start >= timeout);
+	}
+
+	@Override
+	public String toString() {
+		return "Budget : " + (maxPivots == Long.MAX_VALUE ? "unlimited" : maxPivots) + " pivots, "
+			+ (timeout == Long.MAX_VALUE ? "unlimited" : TimeUnit.NANOSECONDS.toMillis(timeout) + " ms");
+	}
+
+}
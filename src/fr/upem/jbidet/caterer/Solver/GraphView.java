@@ -0,0 +1,55 @@
+package fr.upem.jbidet.caterer.Solver;
+
+import fr.upem.jbidet.caterer.Core.FlowNetwork;
+import fr.upem.jbidet.caterer.Core.Graph;
+
+/**
+ * Présente un {@link Graph} au simplex comme un {@link FlowNetwork}, sans le recopier.<br>
+ * Les sommets et les arcs sont lus directement dans les listes du graphe, par leur index ;
+ *  le graphe ne doit pas être modifié pendant la résolution.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+final class GraphView implements FlowNetwork {
+
+	private final Graph graph;
+
+	/**
+	 * Crée la vue d'un graphe.<br>
+	 * @param graph le graphe
+	 */
+	GraphView(Graph graph) {
+		this.graph = graph;
+	}
+
+	@Override
+	public int getVertexQuantity() {
+		return graph.getVertex().size();
+	}
+
+	@Override
+	public int getArcQuantity() {
+		return graph.getArcsQuantity();
+	}
+
+	@Override
+	public int getWeight(int v) {
+		return graph.getVertex(v).getVertexWeight();
+	}
+
+	@Override
+	public int getTail(int a) {
+		return graph.getArc(a).getVertexA().getId();
+	}
+
+	@Override
+	public int getHead(int a) {
+		return graph.getArc(a).getVertexB().getId();
+	}
+
+	@Override
+	public int getCost(int a) {
+		return graph.getArc(a).getCost();
+	}
+
+}
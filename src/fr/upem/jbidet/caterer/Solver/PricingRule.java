@@ -0,0 +1,348 @@
+package fr.upem.jbidet.caterer.Solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Représente la règle de choix de l'arc entrant du simplex, parmi les arcs hors de l'arbre de coût réduit négatif :
+ * <ul>
+ *  <li>{@link #DANTZIG} : tous les arcs sont évalués à chaque pivot, le plus petit coût réduit est choisi ;</li>
+ *  <li>{@link #blockSearch(int)} : les arcs sont évalués par blocs, à partir de là où s'est arrêté le pivot précédent,
+ *   et le meilleur arc du premier bloc qui en contient un est choisi ;</li>
+ *  <li>{@link #candidateList(int, int)} : une liste d'arcs candidats est remplie en parcourant les arcs,
+ *   puis seuls les candidats sont réévalués pendant quelques pivots avant de la remplir à nouveau ;</li>
+ *  <li>{@link #parallel(ForkJoinPool, int)} : comme {@link #DANTZIG}, les arcs étant répartis entre les fils d'un {@link ForkJoinPool}.</li>
+ * </ul>
+ * Une règle ne contient que ses paramètres : elle peut servir à plusieurs résolutions, même simultanées.
+ *  L'état d'une règle (position du parcours, liste des candidats) est créé pour chaque résolution.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public abstract class PricingRule {
+
+	/** le nombre d'arcs en dessous duquel l'évaluation parallèle n'est pas utilisée, par défaut */
+	public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	/** tous les arcs sont évalués à chaque pivot */
+	public static final PricingRule DANTZIG = new PricingRule() {
+		@Override
+		Pricing create(final SpanningTree tree) {
+			return new Pricing() {
+				@Override
+				int findEntering() {
+					return bestArc(tree, 0, eligible(tree));
+				}
+			};
+		}
+		@Override
+		public String toString() {
+			return "dantzig";
+		}
+	};
+
+	/**
+	 * Retourne la règle de recherche par blocs, dont la taille des blocs dépend du nombre d'arcs.<br>
+	 * @return <b>rule</b> la règle
+	 */
+	public static PricingRule blockSearch() {
+		return blockSearch(0);
+	}
+
+	/**
+	 * Retourne la règle de recherche par blocs : les arcs sont parcourus en boucle, depuis l'arc suivant le dernier évalué,
+	 *  par blocs de <b>blockSize</b> arcs ; le meilleur arc du premier bloc contenant un arc de coût réduit négatif est choisi.<br>
+	 * @param blockSize le nombre d'arcs d'un bloc, ou <b>0</b> pour la racine carrée du nombre d'arcs
+	 * @return <b>rule</b> la règle
+	 */
+	public static PricingRule blockSearch(final int blockSize) {
+		if(blockSize < 0) {
+			throw new IllegalArgumentException("block size must not be negative : " + blockSize);
+		}
+		return new PricingRule() {
+			@Override
+			Pricing create(final SpanningTree tree) {
+				final int block = blockSize > 0 ? blockSize : defaultSize(tree.state.length, 10);
+				return new Pricing() {
+					private int next;
+					@Override
+					int findEntering() {
+						int size = eligible(tree);
+						if(next >= size) {
+							next = 0;
+						}
+						/* parcourt les blocs en boucle depuis next ; un bloc s'arrête à la fin des arcs */
+						for(int count=0, a=next; count<size; ) {
+							int end = Math.min(a + block, size);
+							int e = bestArc(tree, a, end);
+							count += end - a;
+							a = end == size ? 0 : end;
+							if(e >= 0) {
+								next = a;
+								return e;
+							}
+						}
+						return -1;
+					}
+				};
+			}
+			@Override
+			public String toString() {
+				return "block search " + (blockSize > 0 ? blockSize : "sqrt");
+			}
+		};
+	}
+
+	/**
+	 * Retourne la règle de la liste de candidats, dont les tailles dépendent du nombre d'arcs.<br>
+	 * @return <b>rule</b> la règle
+	 */
+	public static PricingRule candidateList() {
+		return candidateList(0, 0);
+	}
+
+	/**
+	 * Retourne la règle de la liste de candidats : les arcs sont parcourus en boucle jusqu'à trouver <b>listSize</b> arcs
+	 *  de coût réduit négatif, puis pendant au plus <b>minorLimit</b> pivots seuls ces candidats sont réévalués,
+	 *  tant que l'un d'eux reste de coût réduit négatif.<br>
+	 * @param listSize le nombre de candidats, ou <b>0</b> pour le quart de la racine carrée du nombre d'arcs
+	 * @param minorLimit le nombre de pivots entre deux remplissages de la liste, ou <b>0</b> pour le dixième de la liste
+	 * @return <b>rule</b> la règle
+	 */
+	public static PricingRule candidateList(final int listSize, final int minorLimit) {
+		if(listSize < 0 || minorLimit < 0) {
+			throw new IllegalArgumentException("list size and minor limit must not be negative : " + listSize + ", " + minorLimit);
+		}
+		return new PricingRule() {
+			@Override
+			Pricing create(final SpanningTree tree) {
+				final int length = listSize > 0 ? listSize : Math.max(defaultSize(tree.state.length, 10) / 4, 10);
+				final int limit = minorLimit > 0 ? minorLimit : Math.max(length / 10, 3);
+				return new Pricing() {
+					private final int[] candidates = new int[length];
+					private int count;
+					private int minor;
+					private int next;
+					@Override
+					int findEntering() {
+						int size = eligible(tree);
+						/* itération mineure : réévalue les candidats, retire ceux qui ne conviennent plus */
+						if(count > 0 && minor < limit) {
+							int e = -1;
+							long min = 0;
+							for(int i=0; i<count; ) {
+								int a = candidates[i];
+								long c = a < size && tree.state[a] == SpanningTree.LOWER ? tree.reducedCost(a) : 0;
+								if(c < 0) {
+									if(c < min) {
+										min = c;
+										e = a;
+									}
+									i++;
+								} else {
+									candidates[i] = candidates[--count];
+								}
+							}
+							if(e >= 0) {
+								minor++;
+								return e;
+							}
+						}
+						/* itération majeure : remplit la liste à partir de l'arc suivant le dernier évalué */
+						if(next >= size) {
+							next = 0;
+						}
+						int e = -1;
+						long min = 0;
+						count = 0;
+						minor = 1;
+						for(int i=0, a=next; i<size && count<length; i++) {
+							if(tree.state[a] == SpanningTree.LOWER) {
+								long c = tree.reducedCost(a);
+								if(c < 0) {
+									candidates[count++] = a;
+									if(c < min) {
+										min = c;
+										e = a;
+									}
+								}
+							}
+							if(++a == size) {
+								a = 0;
+							}
+							next = a;
+						}
+						return e;
+					}
+				};
+			}
+			@Override
+			public String toString() {
+				return "candidate list " + (listSize > 0 ? listSize + "/" + minorLimit : "sqrt");
+			}
+		};
+	}
+
+	/**
+	 * Retourne la règle de Dantzig évaluée en parallèle, sur un ensemble de fils partagé de la taille du nombre de processeurs.<br>
+	 * @return <b>rule</b> la règle
+	 * @see #parallel(ForkJoinPool, int)
+	 */
+	public static PricingRule parallel() {
+		return parallel(SharedPool.POOL, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Retourne la règle de Dantzig évaluée en parallèle : les arcs éligibles sont découpés en intervalles,
+	 *  chaque intervalle retourne son meilleur arc, puis les meilleurs arcs sont comparés deux à deux.<br>
+	 * À coût réduit égal, l'arc de plus petit index est choisi : le résultat ne dépend ni du découpage
+	 *  ni de l'ordre d'exécution, et est celui de {@link #DANTZIG}.<br>
+	 * Lorsqu'il y a moins de <b>threshold</b> arcs éligibles, ils sont évalués par le fil du simplex, sans découpage.<br>
+	 * @param pool les fils évaluant les arcs
+	 * @param threshold le nombre d'arcs éligibles à partir duquel les arcs sont évalués en parallèle,
+	 *  et en dessous duquel un intervalle n'est plus découpé
+	 * @return <b>rule</b> la règle
+	 */
+	public static PricingRule parallel(final ForkJoinPool pool, final int threshold) {
+		if(threshold <= 0) {
+			throw new IllegalArgumentException("threshold must be positive : " + threshold);
+		}
+		return new PricingRule() {
+			@Override
+			Pricing create(final SpanningTree tree) {
+				return new Pricing() {
+					@Override
+					int findEntering() {
+						int size = eligible(tree);
+						if(size < threshold) {
+							return bestArc(tree, 0, size);
+						}
+						int grain = Math.max(threshold, size / (pool.getParallelism() << 2));
+						return pool.invoke(new ParallelSearch(tree, 0, size, grain));
+					}
+				};
+			}
+			@Override
+			public String toString() {
+				return "parallel dantzig " + pool.getParallelism() + "x, threshold " + threshold;
+			}
+		};
+	}
+
+	/**
+	 * Retourne l'arc hors de l'arbre de plus petit coût réduit négatif parmi un intervalle d'arcs,
+	 *  le premier en cas d'égalité.<br>
+	 * Lorsque la base a recopié les arcs réels, leurs coûts réduits sont calculés en une seule boucle sur ses tableaux d'entiers,
+	 *  sans appel au réseau ni distinction des arcs artificiels ; les autres arcs sont évalués un par un
+	 *  par {@link SpanningTree#reducedCost(int)}.<br>
+	 * @param tree la base
+	 * @param from l'index du premier arc
+	 * @param to l'index suivant le dernier arc
+	 * @return <b>e</b> l'index de l'arc, ou <b>-1</b> si aucun arc de l'intervalle n'a de coût réduit négatif
+	 */
+	static int bestArc(SpanningTree tree, int from, int to) {
+		byte[] state = tree.state;
+		int e = -1;
+		long min = 0;
+		int a = from;
+		if(tree.tails != null) {
+			int[] tails = tree.tails;
+			int[] heads = tree.heads;
+			int[] costs = tree.costs;
+			long[] potential = tree.potential;
+			for(int end=Math.min(to, tree.arcQuantity); a<end; a++) {
+				long c = costs[a] + potential[tails[a]] - potential[heads[a]];
+				if(c < min && state[a] == SpanningTree.LOWER) {
+					min = c;
+					e = a;
+				}
+			}
+		}
+		for(; a<to; a++) {
+			if(state[a] == SpanningTree.LOWER) {
+				long c = tree.reducedCost(a);
+				if(c < min) {
+					min = c;
+					e = a;
+				}
+			}
+		}
+		return e;
+	}
+
+	/* découpe un intervalle d'arcs en deux jusqu'à la taille grain, et retourne le meilleur arc des deux moitiés */
+	@SuppressWarnings("serial")
+	private static final class ParallelSearch extends RecursiveTask<Integer> {
+
+		private final SpanningTree tree;
+		private final int from;
+		private final int to;
+		private final int grain;
+
+		ParallelSearch(SpanningTree tree, int from, int to, int grain) {
+			this.tree = tree;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		@Override
+		protected Integer compute() {
+			if(to - from <= grain) {
+				return bestArc(tree, from, to);
+			}
+			int middle = (from + to) >>> 1;
+			ParallelSearch left = new ParallelSearch(tree, from, middle, grain);
+			left.fork();
+			int right = new ParallelSearch(tree, middle, to, grain).compute();
+			int best = left.join();
+			/* à égalité, l'arc de gauche, de plus petit index, est gardé */
+			if(best < 0 || (right >= 0 && tree.reducedCost(right) < tree.reducedCost(best))) {
+				best = right;
+			}
+			return best;
+		}
+
+	}
+
+	/* l'ensemble de fils partagé n'est créé qu'à la première utilisation ; ses fils ne retiennent pas la machine virtuelle */
+	private static final class SharedPool {
+		static final ForkJoinPool POOL = new ForkJoinPool();
+	}
+
+	/**
+	 * Crée l'état de cette règle pour une résolution.<br>
+	 * @param tree la base de la résolution
+	 * @return <b>pricing</b> la recherche de l'arc entrant sur cette base
+	 */
+	abstract Pricing create(SpanningTree tree);
+
+	/**
+	 * Retourne le nombre d'arcs pouvant entrer dans l'arbre : les arcs artificiels ne peuvent plus entrer pendant la deuxième phase.<br>
+	 * Les arcs artificiels suivant les arcs réels, les arcs éligibles sont toujours les premiers index.<br>
+	 * @param tree la base
+	 * @return <b>size</b> le nombre d'arcs éligibles
+	 */
+	static int eligible(SpanningTree tree) {
+		return tree.phase1 ? tree.state.length : tree.arcQuantity;
+	}
+
+	private static int defaultSize(int arcQuantity, int min) {
+		return Math.max((int)Math.sqrt(arcQuantity), min);
+	}
+
+	/**
+	 * Représente la recherche de l'arc entrant sur une base, avec l'état de sa règle.<br>
+	 * @author Jeremy
+	 * @version 1.0
+	 */
+	abstract static class Pricing {
+
+		/**
+		 * Cherche l'arc entrant : un arc hors de l'arbre de coût réduit négatif.<br>
+		 * @return <b>e</b> l'index de l'arc entrant, ou <b>-1</b> si aucun arc n'améliore la solution
+		 */
+		abstract int findEntering();
+
+	}
+
+}
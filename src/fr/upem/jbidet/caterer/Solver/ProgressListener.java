@@ -0,0 +1,20 @@
+package fr.upem.jbidet.caterer.Solver;
+
+/**
+ * Reçoit l'avancement d'une résolution lancée par {@link Simplex#solveAsync(java.util.concurrent.Executor, fr.upem.jbidet.caterer.Core.Graph, PricingRule, ProgressListener)}.<br>
+ * Appelé par le fil de la résolution, entre deux pivots : le traitement doit être court.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public interface ProgressListener {
+
+	/**
+	 * Indique l'avancement de la résolution, tous les {@link Simplex#PROGRESS_INTERVAL} pivots et à la fin de chaque phase.<br>
+	 * @param phase1 <b>true</b> pendant la recherche d'une solution initiale, <b>false</b> pendant la recherche de la solution optimale
+	 * @param pivots le nombre de pivots faits depuis le début de la résolution
+	 * @param objective pendant la première phase, le flot restant sur les arcs artificiels ;
+	 *  pendant la deuxième phase, le coût total de la solution courante
+	 */
+	void progress(boolean phase1, long pivots, long objective);
+
+}
@@ -1,340 +1,766 @@
 package fr.upem.jbidet.caterer.Solver;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
-import fr.upem.jbidet.caterer.Core.Arc;
-import fr.upem.jbidet.caterer.Core.FakeArc;
+import fr.upem.jbidet.caterer.Core.CompactGraph;
+import fr.upem.jbidet.caterer.Core.FlowNetwork;
 import fr.upem.jbidet.caterer.Core.Graph;
-import fr.upem.jbidet.caterer.Core.Vertex;
 
 public class Simplex {
 	
-	private static Graph solution;
-	
-	static class Struct {
-		int arcno;
-		Vertex v;
-		Struct(int arcno, Vertex v) { this.arcno = arcno; this.v = v; }
-	}
-	
 	public static enum Response {
+		/** la solution est optimale */
 		OK,
+		/** la solution est réalisable, la résolution s'est arrêtée avant l'optimum (voir {@link Budget}) */
 		PERHAPS,
+		/** le graphe n'accepte pas de solution, ou son coût n'est pas borné */
 		NO
 	};
 	
-	private Simplex() {
+	/** la règle de choix de l'arc entrant par défaut */
+	public static final PricingRule DEFAULT_PRICING = PricingRule.blockSearch();
+	
+	/** le nombre de pivots entre deux appels du {@link ProgressListener} */
+	public static final int PROGRESS_INTERVAL = 1024;
+	
+	private final SpanningTree tree;
+	private final PricingRule.Pricing pricing;
+	private final ProgressListener listener;
+	private final boolean interruptible;
+	private final Budget budget;
+	/** la base d'une résolution précédente, ou <b>null</b> pour partir de la base de démarrage */
+	private final Basis warmStart;
+	private long start;
+	private long pivots;
+	/** le coût de la base dans la phase courante, mis à jour à chaque pivot */
+	private long objective;
+	private Response response = Response.NO;
+	private long gap;
+	
+	/**
+	 * Crée le solveur d'une résolution : une base vide sur le réseau, remplie par {@link #run()} depuis la base de départ,
+	 *  et l'état de la règle de choix.<br>
+	 * Toutes les données modifiées par l'algorithme appartiennent au solveur ; chaque résolution a le sien,
+	 *  plusieurs résolutions peuvent donc avoir lieu en même temps, sur le même graphe ou non.<br>
+	 * @param graph le réseau, qui n'est pas modifié
+	 * @param rule la règle de choix de l'arc entrant
+	 * @param listener l'observateur de l'avancement, ou <b>null</b>
+	 * @param interruptible <b>true</b> si l'interruption du fil arrête la résolution
+	 * @param budget la limite de pivots et de durée de la résolution
+	 * @param warmStart la base d'une résolution précédente, ou <b>null</b>
+	 */
+	private Simplex(FlowNetwork graph, PricingRule rule, ProgressListener listener, boolean interruptible, Budget budget, Basis warmStart) {
+		this.tree = new SpanningTree(graph, graph.getVertexQuantity()/2);
+		this.pricing = rule.create(tree);
+		this.listener = listener;
+		this.interruptible = interruptible;
+		this.budget = budget;
+		this.warmStart = warmStart;
 	}
 	
 	/**
-	 * Lance l'algorithme du simplex (rseau de transpiort) 
-	 *  pour tenter de trouver une solution optimale au problme (graphe).<br>
-	 * L'algorithme consiste  :
+	 * Lance l'algorithme du simplex (réseau de transport) 
+	 *  pour tenter de trouver une solution optimale au problème (graphe).<br>
+	 * L'algorithme consiste à :
 	 * <ol>
-	 *  <li>Dterminer une solution initiale en modifiant le graphe initial
-	 *   et en appliquant l'agorithme du simplex une premire fois.</li>
-	 *  <li>Vrifier si cette solution existe. En testant la prsence d'arcs artificiels aprs algorithme.</li>
-	 *  <li>Restaurer la solution initiale trouve pour faire correspondre les cots des arcs
-	 *   avec les cots du graphe initial.</li>
-	 *  <li>Appliquer l'algorithme du simplex une deuxime fois pour trouver la solution optimale.</li>
+	 *  <li>Déterminer une solution initiale depuis une base de démarrage : les arcs les moins chers du graphe qui forment
+	 *   une forêt, chaque autre composante étant reliée au sommet du milieu par un arc artificiel ;
+	 *   puis appliquer l'agorithme du simplex une première fois, s'il reste du flot sur les arcs artificiels.</li>
+	 *  <li>Vérifier si cette solution existe. En testant la présence de flot sur les arcs artificiels après algorithme.</li>
+	 *  <li>Rétablir les coûts des arcs du graphe initial.</li>
+	 *  <li>Appliquer l'algorithme du simplex une deuxième fois pour trouver la solution optimale.</li>
 	 * </ol>
+	 * Le graphe n'est ni recopié ni modifié : le simplex le lit au travers d'une vue ({@link FlowNetwork})
+	 *  et range les flots, l'arbre et les potentiels dans ses propres tableaux.<br>
+	 * L'arc entrant est choisi suivant la règle {@link #DEFAULT_PRICING}, la recherche par blocs.<br>
 	 * @param graph le graphe d'origine
-	 * @return <b>solution</b> la solution si elle existe
+	 * @return <b>solution</b> la solution si elle existe, sinon <b>null</b> (demande inaccessible, ou cycle de coût négatif)
 	 */
-	public static Graph solve(Graph graph) {
-		solution = new Graph();
-		getInitialSolution(graph);
-		try {
-			checkedInitialSolution(graph);
-		} catch (GraphException e) {
-			e.printStackTrace();
+	public static Solution solve(Graph graph) {
+		return solve(graph, DEFAULT_PRICING);
+	}
+	
+	/**
+	 * Lance l'algorithme du simplex sur un graphe, comme {@link #solve(Graph)}, en choisissant l'arc entrant suivant <b>pricing</b>.<br>
+	 * @param graph le graphe d'origine
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @return <b>solution</b> la solution si elle existe, sinon <b>null</b>
+	 */
+	public static Solution solve(Graph graph, PricingRule pricing) {
+		return solve(graph, pricing, null, false, Budget.UNLIMITED, null);
+	}
+	
+	/**
+	 * Lance l'algorithme du simplex sur un graphe, comme {@link #solve(Graph, PricingRule)}, dans la limite de <b>budget</b>.<br>
+	 * Si la limite est atteinte pendant la recherche de la solution optimale, la solution réalisable courante est retournée
+	 *  avec la réponse {@link Response#PERHAPS} et une borne de son écart à l'optimum, calculée à partir des potentiels :
+	 *  l'offre totale multipliée par la somme, sur les sommets, du plus petit coût réduit négatif de leurs arcs sortants.<br>
+	 * Si la limite est atteinte avant qu'une solution réalisable soit trouvée, aucune solution n'est retournée.<br>
+	 * @param graph le graphe d'origine
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @param budget la limite de pivots et de durée de la résolution
+	 * @return <b>solution</b> la solution optimale, ou la meilleure solution réalisable trouvée dans la limite,
+	 *  sinon <b>null</b> (pas de solution, ou pas de solution réalisable trouvée dans la limite)
+	 */
+	public static Solution solve(Graph graph, PricingRule pricing, Budget budget) {
+		return solve(graph, pricing, null, false, budget, null);
+	}
+	
+	/**
+	 * Résout à nouveau un graphe modifié depuis la base de sa solution précédente,
+	 *  au lieu de repartir de la base de démarrage.<br>
+	 * Voir {@link #solve(Graph, PricingRule, Budget, Basis)}.<br>
+	 * @param graph le graphe modifié : mêmes sommets et mêmes arcs, coûts des arcs ou poids des sommets changés
+	 * @param previous la solution précédente du graphe
+	 * @return <b>solution</b> la solution si elle existe, sinon <b>null</b>
+	 */
+	public static Solution resolve(Graph graph, Solution previous) {
+		return solve(graph, DEFAULT_PRICING, Budget.UNLIMITED, previous.getBasis());
+	}
+	
+	/**
+	 * Lance l'algorithme du simplex sur un graphe depuis la base <b>basis</b> d'une résolution précédente,
+	 *  comme {@link #solve(Graph, PricingRule, Budget)}.<br>
+	 * Les arcs de la base forment l'arbre de départ ; leurs flots sont recalculés à partir des poids des sommets.
+	 *  Un arc de l'arbre qui devrait porter un flot négatif est remplacé par un arc artificiel,
+	 *  et la première phase n'est appliquée que s'il reste du flot sur des arcs artificiels : elle est courte
+	 *  lorsque peu de poids ont changé. La deuxième phase repart des potentiels de la base :
+	 *  seuls les arcs dont le coût réduit est devenu négatif sont à faire entrer.<br>
+	 * @param graph le graphe modifié : mêmes sommets et mêmes arcs, coûts des arcs ou poids des sommets changés
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @param budget la limite de pivots et de durée de la résolution
+	 * @param basis la base d'une solution précédente, ou <b>null</b> pour partir de la base de démarrage
+	 * @return <b>solution</b> la solution si elle existe, sinon <b>null</b>
+	 * @throws IllegalArgumentException la base vient d'un graphe de taille différente
+	 */
+	public static Solution solve(Graph graph, PricingRule pricing, Budget budget, Basis basis) {
+		return solve(graph, pricing, null, false, budget, basis);
+	}
+	
+	/**
+	 * Lance les deux phases du simplex sur un graphe, avec un nouveau solveur, et en fait une {@link Solution}.<br>
+	 * @param graph le graphe d'origine
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @param listener l'observateur de l'avancement, ou <b>null</b>
+	 * @param interruptible <b>true</b> si l'interruption du fil arrête la résolution
+	 * @param budget la limite de pivots et de durée de la résolution
+	 * @param basis la base de départ, ou <b>null</b>
+	 * @return <b>solution</b> la solution si elle existe, sinon <b>null</b>
+	 */
+	private static Solution solve(Graph graph, PricingRule pricing, ProgressListener listener, boolean interruptible, Budget budget, Basis basis) {
+		GraphView view = new GraphView(graph);
+		int n = view.getVertexQuantity();
+		int m = view.getArcQuantity();
+		if(basis != null && (basis.getVertexQuantity() != n || basis.getArcQuantity() != m)) {
+			throw new IllegalArgumentException("basis does not match graph : " + basis + " for " + n + " vertex, " + m + " arcs");
+		}
+		if(n == 0) {
+			return new Solution(graph, new int[m]);
 		}
-		getOptimalSolution(graph);
-		return solution;
+		Simplex simplex = new Simplex(view, pricing, listener, interruptible, budget, basis);
+		int[] flows = simplex.run();
+		if(flows == null) {
+			return null;
+		}
+		return new Solution(graph, flows, simplex.response, simplex.gap, new Basis(n, m, simplex.tree.getTreeArcs()));
 	}
 	
 	/**
-	 * Dtermine une solution initiale au graphe.<br>
-	 * @param graph le grpahe d'origine
+	 * Lance l'algorithme du simplex (réseau de transport) sur un graphe compact, avec les mêmes étapes que {@link #solve(Graph)} :
+	 *  une première phase depuis la base de démarrage, puis une seconde avec les coûts du graphe.<br>
+	 * Tout l'état de l'algorithme est rangé dans des tableaux ({@link SpanningTree}) ; aucun objet n'est créé par sommet ou par arc.<br>
+	 * @param graph le graphe d'origine, qui n'est pas modifié
+	 * @return <b>solution</b> un graphe compact partageant la topologie de <b>graph</b> et portant les flots optimaux,
+	 *  ou <b>null</b> si le graphe n'accepte aucune solution (demande inaccessible, ou cycle de coût négatif)
 	 */
-	private static void getInitialSolution(Graph graph) {
-		/* prend un sommet arbitraire */
-		Vertex w = graph.getVertex(graph.getVertexQuantity()/2);
-		/* copie le graphe initial pour trouver une solution initiale */
-		solution = graph.clone();
-		w = solution.getVertex(w.getId());
-		/* les arcs rels ont un cot de zro */
-		for(Arc a : solution.getArcs()) {
-			a.setCost(0);
-		}
-		/* on ajoute des arcs artificiels pour chaque arc qui ne remplit pas la condition : 
-		 * toutes les sources vont vers w et w va vers tous les puits */
-		for(Vertex v : solution.getVertex()) {
-			if(v.equals(w)) {
-				continue;
+	public static CompactGraph solve(CompactGraph graph) {
+		return solve(graph, DEFAULT_PRICING);
+	}
+	
+	/**
+	 * Lance l'algorithme du simplex sur un graphe compact, comme {@link #solve(CompactGraph)},
+	 *  en choisissant l'arc entrant suivant <b>pricing</b>.<br>
+	 * @param graph le graphe d'origine, qui n'est pas modifié
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @return <b>solution</b> un graphe compact portant les flots optimaux, ou <b>null</b> si le graphe n'accepte aucune solution
+	 */
+	public static CompactGraph solve(CompactGraph graph, PricingRule pricing) {
+		int[] flows = solve((FlowNetwork)graph, pricing);
+		return flows == null ? null : graph.withFlows(flows);
+	}
+	
+	/**
+	 * Lance la résolution d'un graphe sur un des fils de <b>executor</b>, et retourne sans attendre son résultat.<br>
+	 * La résolution s'arrête entre deux pivots lorsque le futur est annulé par <b>cancel(true)</b> :
+	 *  le fil est alors interrompu et rendu à <b>executor</b>. Un futur annulé par <b>cancel(false)</b>
+	 *  laisse une résolution déjà commencée aller à son terme.<br>
+	 * @param executor les fils exécutant la résolution
+	 * @param graph le graphe d'origine
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @param listener l'observateur de l'avancement, appelé par le fil de la résolution, ou <b>null</b>
+	 * @return <b>future</b> le résultat de la résolution, comme celui de {@link #solve(Graph, PricingRule)}
+	 */
+	public static Future<Solution> solveAsync(Executor executor, final Graph graph, final PricingRule pricing, final ProgressListener listener) {
+		FutureTask<Solution> future = new FutureTask<Solution>(new Callable<Solution>() {
+			@Override
+			public Solution call() {
+				return solve(graph, pricing, listener, true, Budget.UNLIMITED, null);
 			}
-			if(v.getVertexWeight() < 0) {
-				boolean add = true;
-				List<Arc> toRemove = new ArrayList<Arc>(v.getArcs().size());
-				for(Arc a : v.getArcs()) {
-					if(a.getVertexB().equals(w)) {
-						add &= false;
-						a.setFlow(-v.getVertexWeight());
-					} else {
-						toRemove.add(a); // ajoute  la liste de suppression
-					}
-				}
-				for(Arc a : toRemove) {
-					v.removeArc(a); // supprime de la liste du sommet, pas du graphe
-				}
-				if(add) {
-					Arc a = new FakeArc(v, w, 1, -v.getVertexWeight());
-					v.addArc(a);
-					w.addArc(a);
-					solution.addArc(a);
-				}
+		});
+		executor.execute(future);
+		return future;
+	}
+	
+	/**
+	 * Lance la résolution d'un graphe compact sur un des fils de <b>executor</b>, et retourne sans attendre son résultat,
+	 *  comme {@link #solveAsync(Executor, Graph, PricingRule, ProgressListener)}.<br>
+	 * @param executor les fils exécutant la résolution
+	 * @param graph le graphe d'origine, qui n'est pas modifié
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @param listener l'observateur de l'avancement, appelé par le fil de la résolution, ou <b>null</b>
+	 * @return <b>future</b> le résultat de la résolution, comme celui de {@link #solve(CompactGraph, PricingRule)}
+	 */
+	public static Future<CompactGraph> solveAsync(Executor executor, final CompactGraph graph, final PricingRule pricing, final ProgressListener listener) {
+		FutureTask<CompactGraph> future = new FutureTask<CompactGraph>(new Callable<CompactGraph>() {
+			@Override
+			public CompactGraph call() {
+				int[] flows = solve(graph, pricing, listener, true);
+				return flows == null ? null : graph.withFlows(flows);
 			}
-			if(v.getVertexWeight() >= 0) {
-				boolean add = true;
-				List<Arc> toRemove = new ArrayList<Arc>(v.getArcs().size());
-				for(Arc a : v.getArcs()) {
-					if(a.getVertexA().equals(w)) {
-						add &= false;
-						a.setFlow(v.getVertexWeight());
-					} else {
-						toRemove.add(a); // ajoute  la liste de suppression
-					}
-				}
-				for(Arc a : toRemove) {
-					v.removeArc(a); // supprime de la liste du sommet, pas du graphe
-				}
-				if(add) {
-					Arc a = new FakeArc(w, v, 1, v.getVertexWeight());
-					v.addArc(a);
-					w.addArc(a);
-					solution.addArc(a);
-				}
+		});
+		executor.execute(future);
+		return future;
+	}
+	
+	/**
+	 * Retourne la résolution d'un graphe comme tâche, à soumettre à un {@link ExecutorService}.<br>
+	 * @param graph le graphe d'origine
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @return <b>task</b> la tâche retournant le résultat de {@link #solve(Graph, PricingRule)}
+	 */
+	public static Callable<Solution> task(final Graph graph, final PricingRule pricing) {
+		return new Callable<Solution>() {
+			@Override
+			public Solution call() {
+				return solve(graph, pricing);
 			}
-		}
-		updateCost();
-		simplex();
+		};
 	}
 	
 	/**
-	 * Vrifie l'existance d'une solution initiale pour ce graphe.<br>
+	 * Retourne la résolution d'un graphe compact comme tâche, à soumettre à un {@link ExecutorService}.<br>
 	 * @param graph le graphe d'origine
-	 * @throws GraphException le graphe n'accepte, ou peut ne pas accepter de solutions
+	 * @param pricing la règle de choix de l'arc entrant
+	 * @return <b>task</b> la tâche retournant le résultat de {@link #solve(CompactGraph, PricingRule)}
 	 */
-	private static void checkedInitialSolution(Graph graph) throws GraphException {
-		boolean tmp = true;
-		for(Arc a : graph.getArcs()) {
-			if(a instanceof FakeArc && a.getCost() > 0) {
-				throw new GraphException("This graph DOES NOT ACCEPT any solutions !");
+	public static Callable<CompactGraph> task(final CompactGraph graph, final PricingRule pricing) {
+		return new Callable<CompactGraph>() {
+			@Override
+			public CompactGraph call() {
+				return solve(graph, pricing);
+			}
+		};
+	}
+	
+	/**
+	 * Résout plusieurs graphes en parallèle, une tâche et un solveur par graphe, sur les fils de <b>executor</b>
+	 *  (un ensemble de fils de taille fixe, ou un fil par tâche).<br>
+	 * Attend la fin de toutes les résolutions ; le résultat d'un graphe, ou l'erreur qui l'a interrompu,
+	 *  est lu par {@link Future#get()} sur le futur de même rang que le graphe.<br>
+	 * @param executor les fils exécutant les résolutions
+	 * @param graphs les graphes d'origine
+	 * @param pricing la règle de choix de l'arc entrant, partagée par les résolutions
+	 * @return <b>futures</b> les résolutions terminées, dans l'ordre des graphes
+	 * @throws InterruptedException le fil a été interrompu pendant l'attente ; les résolutions non terminées sont annulées
+	 */
+	public static List<Future<Solution>> solveAll(ExecutorService executor, Collection<? extends Graph> graphs, PricingRule pricing)
+			throws InterruptedException {
+		List<Callable<Solution>> tasks = new ArrayList<Callable<Solution>>(graphs.size());
+		for(Graph graph : graphs) {
+			tasks.add(task(graph, pricing));
+		}
+		return executor.invokeAll(tasks);
+	}
+	
+	/**
+	 * Résout plusieurs graphes compacts en parallèle, comme {@link #solveAll(ExecutorService, Collection, PricingRule)}.<br>
+	 * @param executor les fils exécutant les résolutions
+	 * @param graphs les graphes d'origine
+	 * @param pricing la règle de choix de l'arc entrant, partagée par les résolutions
+	 * @return <b>futures</b> les résolutions terminées, dans l'ordre des graphes
+	 * @throws InterruptedException le fil a été interrompu pendant l'attente ; les résolutions non terminées sont annulées
+	 */
+	public static List<Future<CompactGraph>> solveAllCompact(ExecutorService executor, Collection<? extends CompactGraph> graphs, PricingRule pricing)
+			throws InterruptedException {
+		List<Callable<CompactGraph>> tasks = new ArrayList<Callable<CompactGraph>>(graphs.size());
+		for(CompactGraph graph : graphs) {
+			tasks.add(task(graph, pricing));
+		}
+		return executor.invokeAll(tasks);
+	}
+	
+	/**
+	 * Lance les deux phases du simplex sur un réseau, avec un nouveau solveur.<br>
+	 * @param graph le réseau
+	 * @param rule la règle de choix de l'arc entrant
+	 * @return <b>flows</b> le flot optimal de chaque arc, ou <b>null</b> si le réseau n'accepte aucune solution
+	 */
+	private static int[] solve(FlowNetwork graph, PricingRule rule) {
+		return solve(graph, rule, null, false);
+	}
+	
+	/**
+	 * Lance les deux phases du simplex sur un réseau, avec un nouveau solveur observé par <b>listener</b>.<br>
+	 * @param graph le réseau
+	 * @param rule la règle de choix de l'arc entrant
+	 * @param listener l'observateur de l'avancement, ou <b>null</b>
+	 * @param interruptible <b>true</b> si l'interruption du fil arrête la résolution
+	 * @return <b>flows</b> le flot optimal de chaque arc, ou <b>null</b> si le réseau n'accepte aucune solution
+	 * @throws CancellationException le fil a été interrompu pendant une résolution interruptible
+	 */
+	private static int[] solve(FlowNetwork graph, PricingRule rule, ProgressListener listener, boolean interruptible) {
+		if(graph.getVertexQuantity() == 0) {
+			return new int[graph.getArcQuantity()];
+		}
+		return new Simplex(graph, rule, listener, interruptible, Budget.UNLIMITED, null).run();
+	}
+	
+	/**
+	 * Lance les deux phases du simplex sur la base de ce solveur.<br>
+	 * @return <b>flows</b> le flot optimal de chaque arc, ou <b>null</b> si le réseau n'accepte aucune solution
+	 */
+	private int[] run() {
+		start = System.nanoTime();
+		getInitialSolution(warmStart == null ? getCrashBasis() : warmStart.getArcs());
+		try {
+			checkedInitialSolution();
+		} catch(GraphException e) {
+			return null;
+		}
+		response = getOptimalSolution();
+		if(response == Response.NO) {
+			return null;
+		}
+		if(response == Response.PERHAPS) {
+			gap = estimateGap();
+		}
+		return tree.getFlows();
+	}
+	
+	/**
+	 * Détermine une solution initiale depuis une base de départ : celle d'une résolution précédente, ou la base de démarrage.<br>
+	 * Les arcs de la base qui forment une forêt entrent dans l'arbre, chaque autre composante est reliée à la racine
+	 *  par un arc artificiel ; les flots de l'arbre sont ensuite recalculés à partir des poids des sommets,
+	 *  en remplaçant les arcs qui devraient porter un flot négatif. La première phase n'est appliquée
+	 *  que s'il reste du flot sur des arcs artificiels.<br>
+	 * @param arcs les arcs de la base de départ, par ordre de préférence
+	 */
+	private void getInitialSolution(int[] arcs) {
+		int n = tree.vertexQuantity;
+		for(int a=0; a<tree.state.length; a++) {
+			if(tree.state[a] != SpanningTree.NONE) {
+				tree.state[a] = SpanningTree.LOWER;
+			}
+			tree.flow[a] = 0;
+		}
+		/* composantes de la forêt, par union des sommets de chaque arc accepté */
+		int[] component = new int[n];
+		for(int v=0; v<n; v++) {
+			component[v] = v;
+		}
+		for(int a : arcs) {
+			if(tree.state[a] == SpanningTree.LOWER && union(component, tree.tail(a), tree.head(a))) {
+				tree.state[a] = SpanningTree.TREE;
 			}
-			if(a instanceof FakeArc && a.getCost() == 0) {
-				tmp &= false;
+		}
+		for(int v=0; v<n; v++) {
+			if(union(component, v, tree.root)) {
+				tree.state[tree.arcQuantity + v] = SpanningTree.TREE;
 			}
 		}
-		if(tmp) {
-			return;
-		} else {
-			throw new GraphException("This graph MAY ACCEPT a solution !");
+		updateCost();
+		while(updateFlow()) {
+			updateCost();
+		}
+		updateObjective();
+		if(objective > 0) {
+			simplex();
 		}
 	}
 	
 	/**
-	 * Retourne la solution optimale, si elle existe.<br>
-	 * @param graph le graphe d'origine
+	 * Retourne la base de démarrage d'une résolution sans base précédente : les arcs du graphe par coût croissant.<br>
+	 * Retenus dans cet ordre tant qu'ils ne ferment pas de cycle, ils forment une forêt couvrante de coût minimal
+	 *  (algorithme de Kruskal) : le flot de l'offre y emprunte les arcs les moins chers, et seuls les sommets
+	 *  qu'elle ne relie pas, ou dont l'arc devrait porter un flot négatif, restent sur un arc artificiel.<br>
+	 * @return <b>arcs</b> les index des arcs du graphe, par coût croissant
 	 */
-	private static void getOptimalSolution(Graph graph) {
-		restore(graph);
-		simplex();
+	private int[] getCrashBasis() {
+		int m = tree.arcQuantity;
+		/* coût et index rangés dans un entier long, triés ensemble sans créer d'objet par arc */
+		long[] keys = new long[m];
+		for(int a=0; a<m; a++) {
+			keys[a] = (long)tree.graph.getCost(a) << 32 | a;
+		}
+		Arrays.sort(keys);
+		int[] arcs = new int[m];
+		for(int i=0; i<m; i++) {
+			arcs[i] = (int)keys[i];
+		}
+		return arcs;
+	}
+	
+	/* réunit les composantes de deux sommets ; retourne false s'ils étaient déjà dans la même */
+	private static boolean union(int[] component, int u, int v) {
+		u = find(component, u);
+		v = find(component, v);
+		if(u == v) {
+			return false;
+		}
+		component[u] = v;
+		return true;
+	}
+	private static int find(int[] component, int v) {
+		while(component[v] != v) {
+			component[v] = component[component[v]]; // raccourcit le chemin de moitié
+			v = component[v];
+		}
+		return v;
 	}
 	
 	/**
-	 * Met  jour les cot de chaque sommet  partir d'un sommet source arbitraire dans la solution
+	 * Calcule le flot de chaque arc de l'arbre à partir des poids des sommets : un arc porte le poids total du sous-arbre
+	 *  qu'il relie à son parent, les sous-arbres étant parcourus du dernier sommet du fil au premier.<br>
+	 * Un arc artificiel qui devrait porter un flot négatif est retourné ; un arc réel est remplacé par l'arc artificiel
+	 *  de son sommet fils. Dans les deux cas l'arbre et ses potentiels doivent être reconstruits, et les flots recalculés.<br>
+	 * @return <b>true</b> si des arcs ont été retournés ou remplacés
 	 */
-	private static void updateCost() {
-		for(Vertex v : solution.getVertex()) {
-			if(v.getVertexWeight() < 0) {
-				updateCostRecursive(v, null);
-				return;
+	private boolean updateFlow() {
+		long[] weight = new long[tree.vertexQuantity];
+		boolean changed = false;
+		for(int v=tree.revThread[tree.root]; v!=tree.root; v=tree.revThread[v]) {
+			weight[v] += tree.graph.getWeight(v);
+			weight[tree.parent[v]] += weight[v];
+			int a = tree.parentArc[v];
+			long f = tree.head(a) == v ? weight[v] : -weight[v];
+			if(f < 0 && tree.isArtificial(a)) {
+				tree.reverseArtificial(a);
+				f = -f;
+				changed = true;
+			} else if(f < 0) {
+				tree.state[a] = SpanningTree.LOWER;
+				tree.state[tree.arcQuantity + v] = SpanningTree.TREE;
+				f = 0;
+				changed = true;
 			}
+			tree.flow[a] = (int)f;
 		}
+		return changed;
 	}
-	private static void updateCostRecursive(Vertex v, Vertex l) {
-		for(Arc a : v.getArcs()) {
-			if(!a.getVertexA().equals(l) && !a.getVertexB().equals(l)) {
-				if(a.getVertexA().equals(v)) {
-					a.getVertexB().setCost(v.getCost() + a.getCost());
-					updateCostRecursive(a.getVertexB(), a.getVertexA());
-				} else {
-					a.getVertexA().setCost(v.getCost() - a.getCost());
-					updateCostRecursive(a.getVertexA(), a.getVertexB());
-				}
+	
+	/**
+	 * Vérifie qu'il ne reste aucun flot sur les arcs artificiels après la première phase.<br>
+	 * @throws GraphException le graphe n'accepte pas de solution
+	 */
+	private void checkedInitialSolution() throws GraphException {
+		for(int a=tree.arcQuantity; a<tree.flow.length; a++) {
+			if(tree.flow[a] > 0) {
+				throw new GraphException("This graph DOES NOT ACCEPT any solutions !");
 			}
 		}
 	}
 	
 	/**
-	 * Dploie l'algorithme du simplex (rseau de transport) sur le graph solution.<br>
-	 * @param graph le graphe d'origine
+	 * Passe aux coûts du graphe et applique le simplex une deuxième fois.<br>
+	 * @return <b>response</b> {@link Response#OK} si la solution optimale est trouvée, {@link Response#NO} si le coût n'est pas borné,
+	 *  {@link Response#PERHAPS} si la limite de la résolution est atteinte avant
 	 */
-	private static boolean simplex() {
-		Set<Arc> tmp_f_arc = new HashSet<Arc>();
-		List<Arc> e_arc = new ArrayList<Arc>();
-		for(Vertex v : solution.getVertex()) {
-			tmp_f_arc.addAll(v.getArcs());
-		}
-		List<Arc> f_arc = new ArrayList<Arc>(tmp_f_arc);
-		for(Arc a : solution.getArcs()) {
-			if(!f_arc.contains(a)) {
-				e_arc.add(a);
+	private Response getOptimalSolution() {
+		tree.startPhase2();
+		updateCost();
+		updateObjective();
+		return simplex();
+	}
+	
+	/**
+	 * Reconstruit l'arbre à partir des arcs de la base, puis met à jour le parent, la profondeur, le fil
+	 *  et le potentiel de chaque sommet depuis la racine.<br>
+	 */
+	private void updateCost() {
+		int n = tree.vertexQuantity;
+		/* liste des arcs de l'arbre de chaque sommet, rangées dans un seul tableau */
+		int[] start = new int[n + 1];
+		for(int a=0; a<tree.state.length; a++) {
+			if(tree.state[a] == SpanningTree.TREE) {
+				start[tree.tail(a) + 1]++;
+				start[tree.head(a) + 1]++;
+			}
+		}
+		for(int v=0; v<n; v++) {
+			start[v + 1] += start[v];
+		}
+		int[] adjacent = new int[start[n]];
+		int[] next = Arrays.copyOf(start, n);
+		for(int a=0; a<tree.state.length; a++) {
+			if(tree.state[a] == SpanningTree.TREE) {
+				adjacent[next[tree.tail(a)]++] = a;
+				adjacent[next[tree.head(a)]++] = a;
 			}
 		}
-		
-		/* on cherche l'arc le plus interessant */
-		Arc e = new Arc(Integer.MAX_VALUE);
-		for(Arc a : e_arc) {
-			for(Arc aa : a.getVertexB().getArcs()) {
-				if	(	a.getVertexA().getCost() + a.getCost() < e.getCost() // si l'arc e (=a) test est mieux que le prcdent e
-					&& (a.getVertexA().getCost() + a.getCost() < aa.getCost() // ou si l'arc e (=a) test est mieux que l'un des arcs du sommet de destination
-							&& aa.getVertexB().equals(a.getVertexB()) // et si cet arc est entrant dans le sommet de destination (sens contraire)
-						)
-					) {
-					e = a;
+		tree.parent[tree.root] = -1;
+		tree.parentArc[tree.root] = -1;
+		tree.depth[tree.root] = 0;
+		tree.potential[tree.root] = 0;
+		/* parcours en profondeur avec une pile explicite : next[v] est le prochain arc de v à suivre,
+		 *  chaque sommet est ajouté au fil à sa découverte et son dernier descendant est connu lorsqu'il quitte la pile */
+		System.arraycopy(start, 0, next, 0, n);
+		int[] stack = new int[n];
+		int top = 0;
+		stack[top++] = tree.root;
+		int end = tree.root;
+		while(top > 0) {
+			int v = stack[top - 1];
+			if(next[v] == start[v + 1]) {
+				tree.last[v] = end;
+				top--;
+				continue;
+			}
+			int a = adjacent[next[v]++];
+			if(a == tree.parentArc[v]) {
+				continue; // arc d'où l'on vient
+			}
+			int w;
+			if(tree.tail(a) == v) {
+				w = tree.head(a);
+				tree.potential[w] = tree.potential[v] + tree.cost(a);
+			} else {
+				w = tree.tail(a);
+				tree.potential[w] = tree.potential[v] - tree.cost(a);
+			}
+			tree.parent[w] = v;
+			tree.parentArc[w] = a;
+			tree.depth[w] = tree.depth[v] + 1;
+			tree.thread[end] = w;
+			tree.revThread[w] = end;
+			end = w;
+			stack[top++] = w;
+		}
+		tree.thread[end] = tree.root;
+		tree.revThread[tree.root] = end;
+	}
+	
+	/**
+	 * Estime l'écart entre le coût de la base et le coût optimal, à partir des potentiels.<br>
+	 * Le coût d'une solution est la somme des potentiels multipliés par le poids des sommets, nulle sur la base
+	 *  des coûts réduits, plus la somme des flots multipliés par le coût réduit de leur arc.
+	 *  Une solution optimale se décompose en chemins élémentaires des sources vers les puits, portant en tout l'offre totale ;
+	 *  un chemin ne sort de chaque sommet que par un arc, le coût réduit d'un chemin est donc au moins la somme,
+	 *  sur les sommets, du plus petit coût réduit négatif de leurs arcs sortants.<br>
+	 * @return <b>gap</b> une borne de l'écart à l'optimum, <b>Long.MAX_VALUE</b> si elle dépasse les entiers longs
+	 */
+	private long estimateGap() {
+		long supply = 0;
+		long[] minimum = new long[tree.vertexQuantity];
+		for(int v=0; v<tree.vertexQuantity; v++) {
+			supply += Math.max(-tree.graph.getWeight(v), 0);
+		}
+		for(int a=0; a<tree.arcQuantity; a++) {
+			if(tree.state[a] == SpanningTree.LOWER) {
+				long c = tree.reducedCost(a);
+				if(c < minimum[tree.tail(a)]) {
+					minimum[tree.tail(a)] = c;
 				}
 			}
 		}
-		if(e.getCost() == Integer.MAX_VALUE) { /* pas d'arc e plus interessant, solution optimale trouve */
-			return true;
+		long negative = 0;
+		for(int v=0; v<tree.vertexQuantity; v++) {
+			negative -= minimum[v];
 		}
-		e.getVertexA().addArc(e);
-		e.getVertexB().addArc(e);
-		/* on cherche l'arc f de sens contraire le moins interessant (cot le plus lev) */
-		findF(e);
-		updateCost();
-		
-		return false | simplex();
+		if(negative != 0 && supply > Long.MAX_VALUE / negative) {
+			return Long.MAX_VALUE;
+		}
+		return supply * negative;
 	}
 	
 	/**
-	 * Si une solution arbre est trouve, alors on rtablit les cots de chaque arc du graphe  leur origine.<br>
-	 * @param graph le graphe d'origine
+	 * Calcule le coût de la base dans la phase courante : la somme des flots multipliés par le coût de leur arc.<br>
 	 */
-	private static void restore(Graph graph) {
-		for(Arc a : solution.getArcs()) {
-			a.setCost(graph.getArc(a.getId()).getCost());
-		}
-	}
-	
-	private static void findF(Arc e) {
-		// cre la liste des arcs du cycle, en supprimant de la copie tous les arcs qui ne sont pas dans le cycle
-		List<Vertex> tmp_cycle = new ArrayList<Vertex>(solution.getVertex());
-		List<Arc> cycle = new ArrayList<Arc>(tmp_cycle.size());
-		
-		Set<Arc> visited = new HashSet<Arc>();
-		Map<Integer, Struct> struct = new HashMap<Integer, Struct>();
-		for(Vertex v : solution.getVertex()) {
-			struct.put(v.getId(), new Struct(v.getArcs().size(), v));
-		}
-		findCycle(e.getVertexB(), e.getVertexA(), tmp_cycle, visited, struct);
-		sortCycle(e, e.getVertexB(), cycle, tmp_cycle);
-		
-		// puis cherche dans ce cycle l'arc en sens inverse ayant le plus fort cot.
-		Arc f = e;
-		int max = Integer.MIN_VALUE;
-		Vertex vA = e.getVertexB();
-		for(Arc a : cycle) {
-			if(a.getVertexB().equals(vA) && a.getCost() > max) {
-				max = a.getCost();
-				f = a; // plus grand cot dans le sens contraire du cycle
+	private void updateObjective() {
+		long total = 0;
+		for(int a=0; a<tree.flow.length; a++) {
+			total += tree.flow[a] * tree.cost(a);
+		}
+		objective = total;
+	}
+	
+	/**
+	 * Met à jour le potentiel des sommets d'un sous-arbre qui vient d'être raccroché à l'arbre par l'arc de son sommet <b>v</b>.<br>
+	 * Les potentiels hors du sous-arbre ne changent pas ; ceux du sous-arbre changent tous de la même valeur,
+	 *  celle qui rend nul le coût réduit de l'arc entrant. Seuls les sommets du sous-arbre sont parcourus, en suivant le fil.<br>
+	 * @param v la racine du sous-arbre
+	 */
+	private void updatePotential(int v) {
+		int a = tree.parentArc[v];
+		long potential = tree.tail(a) == v
+			? tree.potential[tree.parent[v]] - tree.cost(a)
+			: tree.potential[tree.parent[v]] + tree.cost(a);
+		long delta = potential - tree.potential[v];
+		if(delta == 0) {
+			return;
+		}
+		int end = tree.last[v];
+		for(int w=v; ; w=tree.thread[w]) {
+			tree.potential[w] += delta;
+			if(w == end) {
+				break;
 			}
-			vA = a.getVertexA();
 		}
-		
-		int f_flow = f.getFlow();
-		f.getVertexA().getArcs().remove(f);
-		f.getVertexB().getArcs().remove(f);
-		solution.getArcs().remove(f);
-		updateFlow(cycle, e.getVertexB(), f_flow);
-		cycle.remove(f); // doit tre fait aprs pour mettre  jour les flots correctement
 	}
 	
-	private static void findCycle(Vertex b, Vertex a, List<Vertex> cycle, Set<Arc> visited, Map<Integer, Struct> struct) {
-		for(Arc arc : b.getArcs()) {
-			if(arc.getVertexA().equals(a) || arc.getVertexB().equals(a)) {
-				continue; // arc d'o l'on vient
+	/**
+	 * Déploie l'algorithme du simplex sur une base jusqu'à ce qu'aucun arc n'améliore la solution.<br>
+	 * L'état des arcs (dans l'arbre ou hors de l'arbre) est tenu à jour à chaque pivot ;
+	 *  la règle de choix ne parcourt que les arcs qu'elle évalue.<br>
+	 * Entre deux pivots, une résolution interruptible s'arrête si son fil est interrompu,
+	 *  et l'observateur est prévenu tous les {@link #PROGRESS_INTERVAL} pivots.
+	 *  La base reste valide lorsque la limite de la résolution est atteinte.<br>
+	 * @return <b>response</b> {@link Response#OK} si la solution optimale est trouvée, {@link Response#NO} si le coût n'est pas borné,
+	 *  {@link Response#PERHAPS} si la limite de la résolution est atteinte avant
+	 * @throws CancellationException le fil a été interrompu pendant une résolution interruptible
+	 */
+	private Response simplex() {
+		for(;;) {
+			if(budget.isExhausted(pivots, start)) {
+				progress();
+				return Response.PERHAPS;
 			}
-			if(visited.contains(arc)) {
-				continue; // arc dj visit avant
+			int e = pricing.findEntering();
+			if(e < 0) {
+				progress();
+				return Response.OK; // pas d'arc e plus interessant, solution optimale trouvée
 			}
-			visited.add(arc);
-			if(arc.getVertexA().equals(b)) { // l'arc sort de b
-				if(struct.get(arc.getVertexB().getId()).arcno == 1) { // si le sommet suivant est une feuille
-					cycle.remove(arc.getVertexB());	// on le supprime de la liste
-					struct.get(b.getId()).arcno--; // et on dcrmente le nombre d'arc du sommet actuel
-				} else {
-					findCycle(arc.getVertexB(), b, cycle, visited, struct); // on va au sommet suivant
-					if(struct.get(arc.getVertexB().getId()).arcno == 1) { // aprs avoir rduit le sommet suivant on test s'il
-						cycle.remove(arc.getVertexB()); // n'est pas devenue une feuille  son tour, on le supprime dans ce cas
-						struct.get(b.getId()).arcno--; // et on dcrmente le nombre d'arc du sommet actuel
-					}
-				}
-			} else { // l'arc entre dans b
-				if(struct.get(arc.getVertexA().getId()).arcno == 1) { // si le sommet suivant est une feuille
-					cycle.remove(arc.getVertexA());	// on le supprime de la liste
-					struct.get(b.getId()).arcno--; // et on dcrmente le nombre d'arc du sommet actuel
-				} else {
-					findCycle(arc.getVertexA(), b, cycle, visited, struct);
-					if(struct.get(arc.getVertexA().getId()).arcno == 1) { // aprs avoir rduit le sommet suivant on test s'il
-						cycle.remove(arc.getVertexA()); // n'est pas devenue une feuille  son tour, on le supprime dans ce cas
-						struct.get(b.getId()).arcno--; // et on dcrmente le nombre d'arc du sommet actuel
-					}
-				}
+			if(!findF(e)) {
+				progress();
+				return Response.NO;
+			}
+			pivots++;
+			if(interruptible && Thread.currentThread().isInterrupted()) {
+				throw new CancellationException("solve interrupted after " + pivots + " pivots");
+			}
+			if(pivots % PROGRESS_INTERVAL == 0) {
+				progress();
 			}
 		}
 	}
 	
-	private static void sortCycle(Arc arc, Vertex e, List<Arc> cycle, List<Vertex> tmp_cycle) {
-		if(cycle.size() == tmp_cycle.size()) {
-			return; // il y autant d'arcs dans le cycle que de sommets
+	/* prévient l'observateur de l'avancement, s'il y en a un */
+	private void progress() {
+		if(listener != null) {
+			listener.progress(tree.phase1, pivots, objective);
 		}
-		for(Arc a : e.getArcs()) {
-			if(a.getVertexA().equals(e)) {
-				if(tmp_cycle.contains(a.getVertexB())) {
-					if(!cycle.contains(a)) {
-						cycle.add(a);
-						sortCycle(a, a.getVertexB(), cycle, tmp_cycle);
-					}
-				}
-			} else {
-				if(tmp_cycle.contains(a.getVertexA())) {
-					if(!cycle.contains(a)) {
-						cycle.add(a);
-						sortCycle(a, a.getVertexA(), cycle, tmp_cycle);
-					}
-				}
+	}
+	
+	/**
+	 * Fait entrer l'arc <b>e</b> dans l'arbre : cherche l'arc sortant <b>f</b> sur le cycle formé par <b>e</b>
+	 *  et le chemin de l'arbre entre ses sommets, puis met à jour les flots du cycle, l'arbre
+	 *  et les potentiels du sous-arbre déplacé.<br>
+	 * Le sommet commun est trouvé en remontant le plus profond des deux sommets jusqu'à ce qu'ils se rejoignent :
+	 *  le pivot ne parcourt que le cycle.<br>
+	 * Le cycle est parcouru dans le sens de <b>e</b> ; l'arc sortant est l'arc de sens contraire de plus petit flot,
+	 *  le dernier rencontré depuis le sommet commun en cas d'égalité, pour éviter de boucler sur des pivots dégénérés.<br>
+	 * Le coût de la base varie du flot déplacé multiplié par le coût réduit, négatif, de <b>e</b>.<br>
+	 * @param e l'arc entrant
+	 * @return <b>true</b> si le pivot est fait, <b>false</b> si le flot peut croître sans limite sur le cycle
+	 */
+	private boolean findF(int e) {
+		int u = tree.tail(e);
+		int v = tree.head(e);
+		long reducedCost = tree.reducedCost(e);
+		int apex = commonAncestor(u, v);
+		int f = -1;
+		int in = -1;
+		long delta = Long.MAX_VALUE;
+		/* du côté de u, le cycle descend du sommet commun vers u */
+		for(int x=u; x!=apex; x=tree.parent[x]) {
+			int a = tree.parentArc[x];
+			long r = residual(a, tree.tail(a) == tree.parent[x]);
+			if(r < delta) {
+				delta = r;
+				f = a;
+				in = u;
 			}
 		}
+		/* du côté de v, le cycle remonte de v vers le sommet commun */
+		for(int x=v; x!=apex; x=tree.parent[x]) {
+			int a = tree.parentArc[x];
+			long r = residual(a, tree.tail(a) == x);
+			if(r != Long.MAX_VALUE && r <= delta) {
+				delta = r;
+				f = a;
+				in = v;
+			}
+		}
+		if(f < 0) {
+			return false;
+		}
+		int d = (int)delta;
+		for(int x=u; x!=apex; x=tree.parent[x]) {
+			int a = tree.parentArc[x];
+			tree.flow[a] += tree.tail(a) == tree.parent[x] ? d : -d;
+		}
+		for(int x=v; x!=apex; x=tree.parent[x]) {
+			int a = tree.parentArc[x];
+			tree.flow[a] += tree.tail(a) == x ? d : -d;
+		}
+		tree.flow[e] = d;
+		objective += d * reducedCost;
+		tree.state[e] = SpanningTree.TREE;
+		tree.state[f] = SpanningTree.LOWER;
+		tree.exchange(e, f, in);
+		updatePotential(in);
+		return true;
 	}
 	
-	private static void updateFlow(List<Arc> cycle, Vertex v, int flow) {
-		Vertex vA = v;
-		for(Arc a : cycle) {
-			if(a.getVertexB().equals(vA)) {
-				a.setFlow(a.getFlow() - flow);
-				vA = a.getVertexA();
+	/**
+	 * Retourne le plus proche ancêtre commun de deux sommets de l'arbre.<br>
+	 * @param u un sommet
+	 * @param v un sommet
+	 * @return <b>apex</b> le sommet où se rejoignent les chemins de <b>u</b> et <b>v</b> vers la racine
+	 */
+	private int commonAncestor(int u, int v) {
+		while(u != v) {
+			if(tree.depth[u] > tree.depth[v]) {
+				u = tree.parent[u];
 			} else {
-				a.setFlow(a.getFlow() + flow);
-				vA = a.getVertexB();
+				v = tree.parent[v];
 			}
 		}
+		return u;
+	}
+	
+	/**
+	 * Retourne la quantité de flot qui peut encore passer sur un arc du cycle.<br>
+	 * @param a l'arc
+	 * @param forward <b>true</b> si l'arc est dans le sens du cycle
+	 * @return <b>residual</b> le flot de l'arc s'il est de sens contraire, <b>Long.MAX_VALUE</b> s'il n'est pas borné
+	 */
+	private long residual(int a, boolean forward) {
+		if(!forward) {
+			return tree.flow[a];
+		}
+		if(!tree.phase1 && tree.isArtificial(a)) {
+			return 0; // un arc artificiel ne porte plus de flot pendant la deuxième phase
+		}
+		return Long.MAX_VALUE;
 	}
 	
 }
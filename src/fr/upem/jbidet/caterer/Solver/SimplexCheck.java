@@ -0,0 +1,349 @@
+package fr.upem.jbidet.caterer.Solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import fr.upem.jbidet.caterer.Core.Arc;
+import fr.upem.jbidet.caterer.Core.Graph;
+import fr.upem.jbidet.caterer.Core.GraphBuilder;
+import fr.upem.jbidet.caterer.DAO.GraphParser;
+
+/**
+ * Vérifie les bases de départ du {@link Simplex} contre celle de la version d'origine, l'étoile d'arcs artificiels
+ *  autour du sommet du milieu : la base de démarrage par coûts croissants, et la base d'une résolution précédente
+ *  après un changement de poids ou de coût, doivent donner le même coût optimal, ou la même absence de solution.<br>
+ * L'optimum est aussi vérifié sans le simplex : chaque solution retournée doit respecter les poids des sommets,
+ *  et admettre des potentiels, calculés par Bellman-Ford sur le graphe résiduel, sous lesquels aucun arc résiduel
+ *  n'a de coût réduit négatif ; les graphes d'au plus {@link #SHORTEST_PATHS_LIMIT} sommets sont de plus résolus
+ *  par plus courts chemins successifs, qui confirment aussi l'absence de solution.<br>
+ * Les graphes vérifiés sont ceux des fichiers passés en argument (<b>tests/testregex</b> sans argument),
+ *  des graphes aléatoires tirés d'une graine fixe, et de petits graphes non connexes.<br>
+ * Lancer : <b>java fr.upem.jbidet.caterer.Solver.SimplexCheck [fichiers]</b> ; une {@link AssertionError} signale un écart.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+final class SimplexCheck {
+
+	private static final long SEED = 20120321L;
+	private static final int RANDOM_GRAPHS = 200;
+	/** le nombre maximal de sommets d'un graphe résolu aussi par plus courts chemins successifs */
+	private static final int SHORTEST_PATHS_LIMIT = 1000;
+	private static final long INFINITY = Long.MAX_VALUE / 4;
+	/** le début d'un plus court chemin, à une source */
+	private static final int SOURCE = Integer.MAX_VALUE;
+
+	private int checks;
+
+	public static void main(String[] args) throws IOException {
+		String[] paths = args.length == 0 ? new String[] { "tests/testregex" } : args;
+		SimplexCheck check = new SimplexCheck();
+		GraphParser parser = new GraphParser();
+		Random random = new Random(SEED);
+		for(String path : paths) {
+			check.checkGraph(parser.parseFile(new File(path)), random);
+		}
+		for(int i=0; i<RANDOM_GRAPHS; i++) {
+			/* un graphe sur deux n'a pas de circuit reliant tous les sommets, et souvent pas de solution */
+			check.checkGraph(randomGraph(random, i, i % 2 == 0), random);
+		}
+		check.checkDisconnected();
+		System.out.println(check.checks + " checks OK");
+	}
+
+	/**
+	 * Vérifie la base de démarrage d'un graphe, puis la reprise de sa solution après un changement de poids
+	 *  et après un changement de coût.<br>
+	 * @param graph le graphe, dont les poids et les coûts sont modifiés
+	 * @param random le générateur des changements
+	 */
+	private void checkGraph(Graph graph, Random random) {
+		Solution solution = check(graph.getName() + " cold", graph, Simplex.solve(graph));
+		if(solution == null) {
+			return;
+		}
+		/* augmente ou diminue d'autant l'offre d'un sommet et la demande d'un autre */
+		int supply = -1, demand = -1;
+		for(int v=0; v<graph.getVertexQuantity(); v++) {
+			int weight = graph.getVertex(v).getVertexWeight();
+			if(weight < 0 && (supply < 0 || random.nextBoolean())) {
+				supply = v;
+			} else if(weight > 0 && (demand < 0 || random.nextBoolean())) {
+				demand = v;
+			}
+		}
+		if(supply < 0) {
+			return;
+		}
+		int moved = (1 + random.nextInt(-graph.getVertex(supply).getVertexWeight())) * (random.nextBoolean() ? 1 : -1);
+		graph.getVertex(supply).setVertexWeight(graph.getVertex(supply).getVertexWeight() - moved);
+		graph.getVertex(demand).setVertexWeight(graph.getVertex(demand).getVertexWeight() + moved);
+		solution = check(graph.getName() + " warm weights", graph, Simplex.resolve(graph, solution));
+		if(solution == null) {
+			return;
+		}
+		/* rend plus cher l'arc de plus grand flot, et moins cher un arc sans flot */
+		int used = 0;
+		for(int a=1; a<graph.getArcsQuantity(); a++) {
+			if(solution.getFlow(a) > solution.getFlow(used)) {
+				used = a;
+			}
+		}
+		int unused = random.nextInt(graph.getArcsQuantity());
+		graph.getArc(used).setCost(graph.getArc(used).getCost() + 1 + random.nextInt(50));
+		if(solution.getFlow(unused) == 0) {
+			graph.getArc(unused).setCost(graph.getArc(unused).getCost() / 2);
+		}
+		check(graph.getName() + " warm costs", graph, Simplex.resolve(graph, solution));
+	}
+
+	/**
+	 * Vérifie deux graphes à deux composantes : l'un a une solution, l'autre non,
+	 *  puis le premier le perd quand ses poids changent et qu'il est repris depuis sa solution.<br>
+	 */
+	private void checkDisconnected() {
+		GraphBuilder builder = new GraphBuilder(new int[] { -5, 5, -3, 3 }, 2).addArc(0, 1, 2).addArc(2, 3, 4);
+		Graph graph = builder.build("disconnected");
+		Solution solution = check("disconnected cold", graph, Simplex.solve(graph));
+		if(solution == null || solution.getTotalCost() != 22) {
+			throw new AssertionError("disconnected cold : expected cost 22, got " + solution);
+		}
+		graph.getVertex(1).setVertexWeight(2);
+		graph.getVertex(2).setVertexWeight(0);
+		if(check("disconnected warm", graph, Simplex.resolve(graph, solution)) != null) {
+			throw new AssertionError("disconnected warm : expected no solution");
+		}
+		graph = new GraphBuilder(new int[] { -5, 0, 0, 5 }, 2).addArc(0, 1, 2).addArc(2, 3, 4).build("disconnected infeasible");
+		if(check("disconnected infeasible cold", graph, Simplex.solve(graph)) != null) {
+			throw new AssertionError("disconnected infeasible cold : expected no solution");
+		}
+	}
+
+	/**
+	 * Compare une solution au départ depuis l'étoile d'arcs artificiels sur le même graphe,
+	 *  et aux plus courts chemins successifs sur un petit graphe, puis vérifie qu'elle est réalisable et optimale.<br>
+	 * @param what le nom de la vérification
+	 * @param graph le graphe résolu
+	 * @param solution la solution à vérifier, ou <b>null</b>
+	 * @return <b>solution</b> la solution vérifiée
+	 * @throws AssertionError le coût ou l'existence de la solution diffère, ou la solution n'est pas réalisable ou pas optimale
+	 */
+	private Solution check(String what, Graph graph, Solution solution) {
+		checks++;
+		GraphView view = new GraphView(graph);
+		Basis star = new Basis(view.getVertexQuantity(), view.getArcQuantity(), new int[0]);
+		Solution expected = Simplex.solve(graph, Simplex.DEFAULT_PRICING, Budget.UNLIMITED, star);
+		if(graph.getVertexQuantity() <= SHORTEST_PATHS_LIMIT) {
+			Long optimum = shortestPaths(graph);
+			if(optimum == null ? solution != null : solution == null || solution.getTotalCost() != optimum) {
+				throw new AssertionError(what + " : " + (solution == null ? "no solution" : "cost " + solution.getTotalCost())
+						+ ", shortest paths " + (optimum == null ? "no solution" : "cost " + optimum));
+			}
+		}
+		if(expected == null || solution == null) {
+			if(expected != solution) {
+				throw new AssertionError(what + " : " + (solution == null ? "no solution, star start found one" : "solution found, star start found none"));
+			}
+			return null;
+		}
+		if(solution.getTotalCost() != expected.getTotalCost()) {
+			throw new AssertionError(what + " : cost " + solution.getTotalCost() + ", star start cost " + expected.getTotalCost());
+		}
+		long[] balance = new long[graph.getVertexQuantity()];
+		for(int a=0; a<graph.getArcsQuantity(); a++) {
+			Arc arc = graph.getArc(a);
+			if(solution.getFlow(a) < 0) {
+				throw new AssertionError(what + " : negative flow on " + arc);
+			}
+			balance[arc.getVertexA().getId()] -= solution.getFlow(a);
+			balance[arc.getVertexB().getId()] += solution.getFlow(a);
+		}
+		for(int v=0; v<balance.length; v++) {
+			if(balance[v] != graph.getVertex(v).getVertexWeight()) {
+				throw new AssertionError(what + " : vertex " + v + " receives " + balance[v] + " instead of " + graph.getVertex(v).getVertexWeight());
+			}
+		}
+		checkReducedCosts(what, graph, solution);
+		return solution;
+	}
+
+	/**
+	 * Vérifie l'optimalité d'une solution sans le simplex : des potentiels sont calculés par Bellman-Ford
+	 *  sur le graphe résiduel (chaque arc dans son sens, et en sens inverse s'il porte du flot),
+	 *  puis aucun arc résiduel ne doit avoir de coût réduit négatif, ce qui n'est possible qu'en l'absence de cycle résiduel
+	 *  de coût négatif, c'est-à-dire pour une solution optimale.<br>
+	 * @param what le nom de la vérification
+	 * @param graph le graphe résolu
+	 * @param solution une solution réalisable
+	 * @throws AssertionError un arc résiduel a un coût réduit négatif
+	 */
+	private static void checkReducedCosts(String what, Graph graph, Solution solution) {
+		int[][] arcs = arcs(graph);
+		int[] flows = new int[graph.getArcsQuantity()];
+		for(int a=0; a<flows.length; a++) {
+			flows[a] = solution.getFlow(a);
+		}
+		long[] potential = new long[graph.getVertexQuantity()];
+		relax(potential, null, arcs[0], arcs[1], arcs[2], flows);
+		for(int a=0; a<flows.length; a++) {
+			long reduced = arcs[2][a] + potential[arcs[0][a]] - potential[arcs[1][a]];
+			if(reduced < 0 || flows[a] > 0 && reduced > 0) {
+				throw new AssertionError(what + " : residual arc of arc " + a + " (" + arcs[0][a] + " -> " + arcs[1][a] + ") has a negative reduced cost, the solution is not optimal");
+			}
+		}
+	}
+
+	/**
+	 * Résout un graphe sans le simplex, par plus courts chemins successifs : tant qu'il reste de l'offre,
+	 *  le plus court chemin du graphe résiduel d'une source restante vers un puits restant, calculé par Bellman-Ford,
+	 *  reçoit autant de flot que possible.<br>
+	 * @param graph le graphe
+	 * @return <b>cost</b> le coût optimal, ou <b>null</b> si une offre ne peut atteindre aucune demande,
+	 *  ou si les arcs forment un cycle de coût négatif (coût non borné, ou pas de solution)
+	 */
+	private static Long shortestPaths(Graph graph) {
+		int n = graph.getVertexQuantity();
+		int m = graph.getArcsQuantity();
+		int[][] arcs = arcs(graph);
+		int[] tails = arcs[0], heads = arcs[1], costs = arcs[2], flows = new int[m];
+		long[] distance = new long[n];
+		if(relax(distance, null, tails, heads, costs, flows)) {
+			return null;
+		}
+		/* offre restante des sources (poids négatif), demande restante des puits (poids positif) */
+		long[] remaining = new long[n];
+		long supply = 0;
+		for(int v=0; v<n; v++) {
+			remaining[v] = graph.getVertex(v).getVertexWeight();
+			supply -= Math.min(0, remaining[v]);
+		}
+		long total = 0;
+		int[] previous = new int[n]; // arc a parcouru dans son sens, ou ~a en sens inverse
+		while(supply > 0) {
+			for(int v=0; v<n; v++) {
+				distance[v] = remaining[v] < 0 ? 0 : INFINITY;
+				previous[v] = SOURCE;
+			}
+			relax(distance, previous, tails, heads, costs, flows);
+			int sink = -1;
+			for(int v=0; v<n; v++) {
+				if(remaining[v] > 0 && distance[v] < INFINITY && (sink < 0 || distance[v] < distance[sink])) {
+					sink = v;
+				}
+			}
+			if(sink < 0) {
+				return null;
+			}
+			/* le flot ajouté est borné par la demande du puits, l'offre de la source et le flot des arcs pris à rebours */
+			long amount = remaining[sink];
+			int v = sink;
+			while(previous[v] != SOURCE) {
+				int a = previous[v];
+				if(a < 0) {
+					amount = Math.min(amount, flows[~a]);
+					v = heads[~a];
+				} else {
+					v = tails[a];
+				}
+			}
+			amount = Math.min(amount, -remaining[v]);
+			remaining[v] += amount;
+			for(v=sink; previous[v] != SOURCE; ) {
+				int a = previous[v];
+				if(a < 0) {
+					flows[~a] -= amount;
+					v = heads[~a];
+				} else {
+					flows[a] += amount;
+					v = tails[a];
+				}
+			}
+			remaining[sink] -= amount;
+			supply -= amount;
+			total += amount * distance[sink];
+		}
+		return total;
+	}
+
+	/**
+	 * Recopie les arcs d'un graphe dans des tableaux.<br>
+	 * @param graph le graphe
+	 * @return <b>arcs</b> les sommets de départ, les sommets d'arrivée et les coûts des arcs
+	 */
+	private static int[][] arcs(Graph graph) {
+		int m = graph.getArcsQuantity();
+		int[][] arcs = new int[3][m];
+		for(int a=0; a<m; a++) {
+			arcs[0][a] = graph.getArc(a).getVertexA().getId();
+			arcs[1][a] = graph.getArc(a).getVertexB().getId();
+			arcs[2][a] = graph.getArc(a).getCost();
+		}
+		return arcs;
+	}
+
+	/**
+	 * Calcule par Bellman-Ford les plus courtes distances du graphe résiduel depuis les sommets de distance initiale finie :
+	 *  chaque arc dans son sens, et en sens inverse, de coût opposé, s'il porte du flot.<br>
+	 * @param distance les distances initiales, remplacées par les plus courtes distances
+	 * @param previous le dernier arc du plus court chemin de chaque sommet (<b>~a</b> pour l'arc <b>a</b> pris à rebours),
+	 *  ou <b>null</b>
+	 * @param tails les sommets de départ des arcs
+	 * @param heads les sommets d'arrivée des arcs
+	 * @param costs les coûts des arcs
+	 * @param flows les flots des arcs
+	 * @return <b>true</b> si les distances baissent encore après autant de passes que de sommets : le graphe résiduel
+	 *  a un cycle de coût négatif
+	 */
+	private static boolean relax(long[] distance, int[] previous, int[] tails, int[] heads, int[] costs, int[] flows) {
+		boolean changed = true;
+		for(int round=0; round<=distance.length && changed; round++) {
+			changed = false;
+			for(int a=0; a<tails.length; a++) {
+				if(distance[tails[a]] < INFINITY && distance[tails[a]] + costs[a] < distance[heads[a]]) {
+					distance[heads[a]] = distance[tails[a]] + costs[a];
+					if(previous != null) {
+						previous[heads[a]] = a;
+					}
+					changed = true;
+				}
+				if(flows[a] > 0 && distance[heads[a]] < INFINITY && distance[heads[a]] - costs[a] < distance[tails[a]]) {
+					distance[tails[a]] = distance[heads[a]] - costs[a];
+					if(previous != null) {
+						previous[tails[a]] = ~a;
+					}
+					changed = true;
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Tire un graphe aléatoire équilibré, sans boucle.<br>
+	 * @param random le générateur
+	 * @param index le numéro du graphe, qui le nomme
+	 * @param cycle <b>true</b> pour ajouter un circuit coûteux reliant tous les sommets, qui assure une solution
+	 * @return <b>graph</b> le graphe
+	 */
+	private static Graph randomGraph(Random random, int index, boolean cycle) {
+		int n = 2 + random.nextInt(40);
+		int[] weights = new int[n];
+		for(int v=1; v<n; v++) {
+			weights[v] = random.nextInt(101) - 50;
+			weights[0] -= weights[v];
+		}
+		GraphBuilder builder = new GraphBuilder(weights, 4 * n);
+		for(int i=0; i<3*n; i++) {
+			int tail = random.nextInt(n);
+			int head = (tail + 1 + random.nextInt(n - 1)) % n;
+			builder.addArc(tail, head, random.nextInt(100));
+		}
+		if(cycle) {
+			for(int v=0; v<n; v++) {
+				builder.addArc(v, (v + 1) % n, 1000);
+			}
+		}
+		return builder.build("random " + index);
+	}
+
+}
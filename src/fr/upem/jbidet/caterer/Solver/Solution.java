@@ -0,0 +1,145 @@
+package fr.upem.jbidet.caterer.Solver;
+
+import fr.upem.jbidet.caterer.Core.Arc;
+import fr.upem.jbidet.caterer.Core.Graph;
+
+/**
+ * Représente la solution d'un graphe trouvée par le {@link Simplex} : le flot de chacun de ses arcs.<br>
+ * La solution ne recopie pas le graphe : elle le référence, et range les flots dans un tableau indexé par l'identifiant des arcs.
+ *  Le même graphe peut ainsi être résolu plusieurs fois, en même temps, sans être modifié.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+public class Solution {
+
+	private final Graph graph;
+	private final int[] flows;
+	private final Simplex.Response response;
+	private final long gap;
+	private final Basis basis;
+
+	/**
+	 * Crée la solution optimale d'un graphe.<br>
+	 * @param graph le graphe résolu
+	 * @param flows le flot de chaque arc, indexé par l'identifiant des arcs
+	 */
+	Solution(Graph graph, int[] flows) {
+		this(graph, flows, Simplex.Response.OK, 0, null);
+	}
+
+	/**
+	 * Crée une solution d'un graphe, optimale ou seulement réalisable.<br>
+	 * @param graph le graphe résolu
+	 * @param flows le flot de chaque arc, indexé par l'identifiant des arcs
+	 * @param response {@link Simplex.Response#OK} si la solution est optimale, {@link Simplex.Response#PERHAPS} sinon
+	 * @param gap une borne de l'écart entre le coût de la solution et le coût optimal
+	 * @param basis la base sur laquelle le simplex s'est arrêté, ou <b>null</b>
+	 */
+	Solution(Graph graph, int[] flows, Simplex.Response response, long gap, Basis basis) {
+		this.graph = graph;
+		this.flows = flows;
+		this.response = response;
+		this.gap = gap;
+		this.basis = basis;
+	}
+
+	/**
+	 * Retourne le graphe résolu.<br>
+	 * @return <b>graph</b> le graphe
+	 */
+	public Graph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Indique si la solution est optimale, ou seulement réalisable lorsque la résolution a été limitée par un {@link Budget}.<br>
+	 * @return <b>response</b> {@link Simplex.Response#OK} si la solution est optimale, {@link Simplex.Response#PERHAPS} sinon
+	 */
+	public Simplex.Response getResponse() {
+		return response;
+	}
+
+	/**
+	 * Retourne une borne de l'écart entre le coût de la solution et le coût optimal : nulle pour une solution optimale.<br>
+	 * @return <b>gap</b> l'écart maximal : le coût optimal est au moins le coût total moins <b>gap</b>
+	 */
+	public long getGap() {
+		return gap;
+	}
+
+	/**
+	 * Retourne la base sur laquelle le simplex s'est arrêté, pour résoudre à nouveau le graphe après une modification.<br>
+	 * @return <b>basis</b> la base, ou <b>null</b> pour un graphe sans sommet
+	 * @see Simplex#resolve(Graph, Solution)
+	 */
+	public Basis getBasis() {
+		return basis;
+	}
+
+	/**
+	 * Retourne le flot d'un arc du graphe.<br>
+	 * @param arc l'arc
+	 * @return <b>flow</b> la quantité transportée par l'arc
+	 */
+	public int getFlow(Arc arc) {
+		return flows[arc.getId()];
+	}
+
+	/**
+	 * Retourne le flot d'un arc du graphe suivant son index.<br>
+	 * @param index l'index de l'arc
+	 * @return <b>flow</b> la quantité transportée par l'arc
+	 */
+	public int getFlow(int index) {
+		return flows[index];
+	}
+
+	/**
+	 * Retourne le coût total de la solution : la somme des flots multipliés par le coût de leur arc.<br>
+	 * @return <b>cost</b> le coût total
+	 */
+	public long getTotalCost() {
+		long total = 0;
+		for(int i=0; i<flows.length; i++) {
+			total += (long)flows[i] * graph.getArc(i).getCost();
+		}
+		return total;
+	}
+
+	/**
+	 * Instancie une copie du graphe dont les arcs portent les flots de la solution.<br>
+	 * @return <b>graph</b> la copie du graphe
+	 */
+	public Graph toGraph() {
+		Graph copy = graph.clone();
+		for(int i=0; i<flows.length; i++) {
+			copy.getArc(i).setFlow(flows[i]);
+		}
+		return copy;
+	}
+
+	/**
+	 * Affiche la solution : les arcs portant un flot et le coût total.<br>
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Solution : {\n")
+			.append("\tname : ").append(graph.getName()).append("\n")
+			.append("\tflows : {\n");
+		for(int i=0; i<flows.length; i++) {
+			if(flows[i] != 0) {
+				Arc a = graph.getArc(i);
+				sb.append("\t\t").append(a.getVertexA().getId()).append(" -> ").append(a.getVertexB().getId())
+					.append(" : ").append(flows[i]).append(" x ").append(a.getCost()).append("\n");
+			}
+		}
+		sb.append("\t}\n")
+			.append("\ttotal cost : ").append(getTotalCost()).append("\n");
+		if(response != Simplex.Response.OK) {
+			sb.append("\tresponse : ").append(response).append(", gap : ").append(gap).append("\n");
+		}
+		return sb.append("}\n").toString();
+	}
+
+}
@@ -0,0 +1,310 @@
+package fr.upem.jbidet.caterer.Solver;
+
+import java.util.Arrays;
+
+import fr.upem.jbidet.caterer.Core.CompactGraph;
+import fr.upem.jbidet.caterer.Core.FlowNetwork;
+
+/**
+ * Représente une base du simplex sur un {@link FlowNetwork} : un arbre couvrant et les flots de ses arcs.<br>
+ * Aux <b>m</b> arcs du graphe s'ajoutent <b>n</b> arcs artificiels d'index <b>m + v</b>,
+ *  reliant chaque sommet <b>v</b> à la racine : de <b>v</b> vers la racine si <b>v</b> est une source, l'inverse sinon.<br>
+ * Tout l'état du simplex est rangé dans des tableaux indexés par sommet ou par arc ;
+ *  le réseau n'est jamais modifié, plusieurs bases peuvent donc partager le même réseau.<br>
+ * L'arbre est enraciné et indexé par sommet : le parent, l'arc vers le parent et la profondeur de chaque sommet,
+ *  et le fil (<i>thread</i>) qui chaîne les sommets dans l'ordre préfixe de l'arbre, en boucle depuis la racine.
+ *  Les descendants d'un sommet <b>v</b> se suivent sur le fil de <b>v</b> à <b>last[v]</b> ;
+ *  un pivot ne parcourt donc que le cycle et le sous-arbre qu'il déplace.<br>
+ * Les sommets et le coût des arcs réels d'un réseau rangé dans le tas sont recopiés dans des tableaux d'entiers à la création de la base :
+ *  l'évaluation des coûts réduits ne lit que des tableaux, sans passer par le réseau.
+ *  Ceux d'un {@link CompactGraph} rangé hors du tas sont lus dans le réseau, pour ne pas ramener sa topologie dans le tas :
+ *  la base n'y occupe alors que l'état et le flot de chaque arc.<br>
+ * @author Jeremy
+ * @version 1.0
+ */
+final class SpanningTree {
+
+	/** l'arc n'existe pas (arc artificiel de la racine vers elle-même) */
+	static final byte NONE = -1;
+	/** l'arc est hors de l'arbre, de flot nul */
+	static final byte LOWER = 0;
+	/** l'arc est dans l'arbre */
+	static final byte TREE = 1;
+
+	final FlowNetwork graph;
+	final int vertexQuantity;
+	final int arcQuantity;
+	final int root;
+	/** phase 1 : les arcs réels coûtent 0 et les arcs artificiels 1 ; phase 2 : les coûts du graphe, les arcs artificiels ne peuvent plus porter de flot */
+	boolean phase1;
+	/** les sommets des arcs réels, ou <b>null</b> s'ils sont lus dans le réseau */
+	final int[] tails;
+	final int[] heads;
+	/** le coût de chaque arc réel dans la phase courante, ou <b>null</b> s'il est lu dans le réseau */
+	final int[] costs;
+	/** les sommets de l'arc artificiel de chaque sommet */
+	private final int[] artificialTails;
+	private final int[] artificialHeads;
+	final byte[] state;
+	final int[] flow;
+	final int[] parent;
+	final int[] parentArc;
+	final int[] depth;
+	/** le sommet suivant dans l'ordre préfixe */
+	final int[] thread;
+	/** le sommet précédent dans l'ordre préfixe */
+	final int[] revThread;
+	/** le dernier descendant dans l'ordre préfixe */
+	final int[] last;
+	final long[] potential;
+	/* les morceaux du fil (premier et dernier sommet) d'un sous-arbre déplacé, réutilisés d'un pivot à l'autre */
+	private int[] segments = new int[16];
+
+	/**
+	 * Crée une base vide sur un réseau : les tableaux de l'arbre sont alloués, et l'arc artificiel de chaque sommet
+	 *  orienté suivant son poids ; seul l'arc artificiel de la racine vers elle-même est marqué inexistant.<br>
+	 * Les arcs de l'arbre, leurs flots et l'indexation de l'arbre sont construits ensuite par le {@link Simplex},
+	 *  depuis sa base de départ.<br>
+	 * @param graph le réseau
+	 * @param root le sommet racine de l'arbre
+	 */
+	SpanningTree(FlowNetwork graph, int root) {
+		this.graph = graph;
+		this.vertexQuantity = graph.getVertexQuantity();
+		this.arcQuantity = graph.getArcQuantity();
+		this.root = root;
+		this.phase1 = true;
+		int size = arcQuantity + vertexQuantity;
+		if(graph instanceof CompactGraph && ((CompactGraph)graph).getStorage().isOffHeap()) {
+			this.tails = null;
+			this.heads = null;
+			this.costs = null;
+		} else {
+			this.tails = new int[arcQuantity];
+			this.heads = new int[arcQuantity];
+			this.costs = new int[arcQuantity];
+			for(int a=0; a<arcQuantity; a++) {
+				tails[a] = graph.getTail(a);
+				heads[a] = graph.getHead(a);
+			}
+		}
+		this.artificialTails = new int[vertexQuantity];
+		this.artificialHeads = new int[vertexQuantity];
+		for(int v=0; v<vertexQuantity; v++) {
+			boolean source = graph.getWeight(v) < 0;
+			artificialTails[v] = source ? v : root;
+			artificialHeads[v] = source ? root : v;
+		}
+		this.state = new byte[size];
+		this.flow = new int[size];
+		this.parent = new int[vertexQuantity];
+		this.parentArc = new int[vertexQuantity];
+		this.depth = new int[vertexQuantity];
+		this.thread = new int[vertexQuantity];
+		this.revThread = new int[vertexQuantity];
+		this.last = new int[vertexQuantity];
+		this.potential = new long[vertexQuantity];
+		state[arcQuantity + root] = NONE;
+		parent[root] = -1;
+		parentArc[root] = -1;
+	}
+
+	/**
+	 * Indique si un arc est artificiel.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>true</b> si l'arc n'appartient pas au graphe
+	 */
+	boolean isArtificial(int a) {
+		return a >= arcQuantity;
+	}
+
+	/**
+	 * Passe à la deuxième phase : les arcs réels prennent le coût du graphe, les arcs artificiels un coût nul.<br>
+	 */
+	void startPhase2() {
+		phase1 = false;
+		if(costs != null) {
+			for(int a=0; a<arcQuantity; a++) {
+				costs[a] = graph.getCost(a);
+			}
+		}
+	}
+
+	/**
+	 * Retourne le sommet A d'un arc, réel ou artificiel.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>tail</b> le sommet A
+	 */
+	int tail(int a) {
+		if(a >= arcQuantity) {
+			return artificialTails[a - arcQuantity];
+		}
+		return tails != null ? tails[a] : graph.getTail(a);
+	}
+
+	/**
+	 * Retourne le sommet B d'un arc, réel ou artificiel.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>head</b> le sommet B
+	 */
+	int head(int a) {
+		if(a >= arcQuantity) {
+			return artificialHeads[a - arcQuantity];
+		}
+		return heads != null ? heads[a] : graph.getHead(a);
+	}
+
+	/**
+	 * Retourne le coût d'un arc dans la phase courante.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>cost</b> le coût de l'arc
+	 */
+	long cost(int a) {
+		if(a >= arcQuantity) {
+			return phase1 ? 1 : 0;
+		}
+		if(phase1) {
+			return 0;
+		}
+		return costs != null ? costs[a] : graph.getCost(a);
+	}
+
+	/**
+	 * Retourne le coût réduit d'un arc : son coût plus le potentiel de son sommet A moins celui de son sommet B.<br>
+	 * Un arc hors de l'arbre de coût réduit négatif améliore la solution en entrant dans l'arbre.<br>
+	 * @param a l'index de l'arc
+	 * @return <b>cost</b> le coût réduit
+	 */
+	long reducedCost(int a) {
+		return cost(a) + potential[tail(a)] - potential[head(a)];
+	}
+
+	/**
+	 * Remplace l'arc <b>f</b> de l'arbre par l'arc <b>e</b> : le sous-arbre coupé par <b>f</b> est raccroché par <b>e</b>,
+	 *  enraciné en <b>in</b>, l'extrémité de <b>e</b> qu'il contient.<br>
+	 * Les parents sont inversés sur le chemin de <b>in</b> au sommet coupé, puis le fil, la profondeur et le dernier descendant
+	 *  ne sont recalculés que sur le sous-arbre déplacé. Les potentiels ne sont pas mis à jour.<br>
+	 * @param e l'arc entrant
+	 * @param f l'arc sortant, dans l'arbre
+	 * @param in l'extrémité de <b>e</b> située sous <b>f</b>
+	 */
+	void exchange(int e, int f, int in) {
+		int out = tail(e) == in ? head(e) : tail(e);
+		int x = depth[tail(f)] > depth[head(f)] ? tail(f) : head(f);
+		/* nouvel ordre préfixe du sous-arbre enraciné en in : le sous-arbre de in, puis en remontant jusqu'à x,
+		 *  chaque sommet suivi de ses descendants qui précèdent et qui suivent le sous-arbre d'où l'on vient */
+		int count = 0;
+		count = segment(count, in, last[in]);
+		for(int child=in; child!=x; child=parent[child]) {
+			int q = parent[child];
+			count = segment(count, q, q);
+			if(thread[q] != child) {
+				count = segment(count, thread[q], revThread[child]);
+			}
+			if(last[q] != last[child]) {
+				count = segment(count, thread[last[child]], last[q]);
+			}
+		}
+		/* retire le sous-arbre de x du fil */
+		int before = revThread[x];
+		int after = thread[last[x]];
+		thread[before] = after;
+		revThread[after] = before;
+		for(int a=parent[x], end=last[x]; a>=0 && last[a]==end; a=parent[a]) {
+			last[a] = before;
+		}
+		/* chaîne les morceaux du nouvel ordre, puis les insère juste après out */
+		for(int i=2; i<count; i+=2) {
+			thread[segments[i - 1]] = segments[i];
+			revThread[segments[i]] = segments[i - 1];
+		}
+		int end = segments[count - 1];
+		int next = thread[out];
+		thread[out] = in;
+		revThread[in] = out;
+		thread[end] = next;
+		revThread[next] = end;
+		if(last[out] == out) {
+			for(int a=out; a>=0 && last[a]==out; a=parent[a]) {
+				last[a] = end;
+			}
+		}
+		/* inverse les parents sur le chemin de in à x */
+		int p = out;
+		int pa = e;
+		for(int v=in; p!=x; ) {
+			int nextParent = parent[v];
+			int nextArc = parentArc[v];
+			parent[v] = p;
+			parentArc[v] = pa;
+			p = v;
+			pa = nextArc;
+			v = nextParent;
+		}
+		/* profondeur dans l'ordre préfixe, dernier descendant dans l'ordre inverse */
+		for(int v=in; ; v=thread[v]) {
+			depth[v] = depth[parent[v]] + 1;
+			last[v] = -1;
+			if(v == end) {
+				break;
+			}
+		}
+		for(int v=end; ; v=revThread[v]) {
+			if(last[v] < 0) {
+				last[v] = v;
+			}
+			if(v == in) {
+				break;
+			}
+			if(last[parent[v]] < 0) {
+				last[parent[v]] = last[v];
+			}
+		}
+	}
+
+	/* ajoute un morceau du fil, de first à end inclus */
+	private int segment(int count, int first, int end) {
+		if(count + 2 > segments.length) {
+			segments = Arrays.copyOf(segments, segments.length << 1);
+		}
+		segments[count] = first;
+		segments[count + 1] = end;
+		return count + 2;
+	}
+
+	/**
+	 * Inverse le sens d'un arc artificiel, pour qu'il porte son flot de la racine vers son sommet ou l'inverse.<br>
+	 * @param a l'index de l'arc artificiel
+	 */
+	void reverseArtificial(int a) {
+		int v = a - arcQuantity;
+		int tail = artificialTails[v];
+		artificialTails[v] = artificialHeads[v];
+		artificialHeads[v] = tail;
+	}
+
+	/**
+	 * Retourne les arcs de l'arbre.<br>
+	 * @return <b>arcs</b> l'index de chaque arc de l'arbre, réel ou artificiel
+	 */
+	int[] getTreeArcs() {
+		int[] arcs = new int[vertexQuantity - 1];
+		for(int v=0, i=0; v<vertexQuantity; v++) {
+			if(v != root) {
+				arcs[i++] = parentArc[v];
+			}
+		}
+		return arcs;
+	}
+
+	/**
+	 * Retourne les flots des arcs réels.<br>
+	 * @return <b>flows</b> le flot de chaque arc du graphe
+	 */
+	int[] getFlows() {
+		int[] flows = new int[arcQuantity];
+		System.arraycopy(flow, 0, flows, 0, arcQuantity);
+		return flows;
+	}
+
+}